@@ -0,0 +1,123 @@
+package com.javatechie.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP load against {@code POST /api/orders}, shared by spring-transaction's {@code *ThreadOrderLoadTest}
+ * and spring-transaction-reactive's {@code ReactiveOrderLoadTest} (a test dependency of both modules),
+ * so every stack sees the same clients, requests and products.
+ * <p>
+ * Each product gets {@link #STOCK_PER_PRODUCT} units for {@link #ORDERS_PER_PRODUCT} orders : a correct run
+ * sells every unit and rejects the rest, whatever the timing.
+ */
+public class OrderLoad {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderLoad.class);
+
+    public static final int CLIENTS = 400;
+    public static final int REQUESTS_PER_CLIENT = 25;
+    public static final int WARMUP_REQUESTS = 500;
+    // spread over several rows, one hot row would measure its lock instead of the stack
+    public static final int PRODUCTS = 50;
+    public static final int ORDERS_PER_PRODUCT = CLIENTS / PRODUCTS * REQUESTS_PER_CLIENT;
+    // a quarter of the orders of a product find it sold out
+    public static final int STOCK_PER_PRODUCT = ORDERS_PER_PRODUCT * 3 / 4;
+    // cheap enough to pass payment validation on every order
+    public static final double PRICE = 10.0;
+
+    // order ids are never reused, they are primary keys of ORDERS
+    private static final AtomicInteger ORDER_IDS = new AtomicInteger(1_000_000);
+
+    private final URI ordersUri;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    public OrderLoad(int port) {
+        this.ordersUri = URI.create("http://localhost:" + port + "/api/orders");
+    }
+
+    public void warmUp(int[] productIds) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            placeOrder(productIds[i % productIds.length]);
+        }
+    }
+
+    /**
+     * @param productIds {@link #PRODUCTS} products with {@link #STOCK_PER_PRODUCT} units each
+     */
+    public Result run(String stack, int[] productIds) throws Exception {
+        long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        long elapsedNanos;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                int productId = productIds[c % productIds.length];
+                futures.add(clients.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        long begin = System.nanoTime();
+                        if (placeOrder(productId) == 200) {
+                            succeeded.incrementAndGet();
+                        }
+                        latencies[client * REQUESTS_PER_CLIENT + i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+
+        Arrays.sort(latencies);
+        Result result = new Result(latencies.length, succeeded.get(),
+                latencies.length / (elapsedNanos / 1_000_000_000.0),
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+        log.info("{} : {} requests, {} succeeded, {} req/sec, p50 {} ms, p99 {} ms", stack, result.requests(),
+                result.succeeded(), Math.round(result.requestsPerSecond()),
+                "%.1f".formatted(result.p50Millis()), "%.1f".formatted(result.p99Millis()));
+        return result;
+    }
+
+    private int placeOrder(int productId) throws Exception {
+        String body = "{\"id\":%d,\"productId\":%d,\"quantity\":1}".formatted(ORDER_IDS.incrementAndGet(), productId);
+        HttpRequest request = HttpRequest.newBuilder(ordersUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+
+    /**
+     * @param succeeded orders answered with 200, the others were rejected (sold out) or failed
+     */
+    public record Result(int requests, int succeeded, double requestsPerSecond, double p50Millis, double p99Millis) {
+    }
+}
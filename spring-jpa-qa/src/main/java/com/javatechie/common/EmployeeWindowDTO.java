@@ -0,0 +1,18 @@
+package com.javatechie.common;
+
+import com.javatechie.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeWindowDTO {
+    private List<Employee> content;
+    // pass it back as ?cursor= to get the next page, null on the last one
+    private String nextCursor;
+
+}
@@ -0,0 +1,72 @@
+package com.javatechie.common;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Opaque cursor token of keyset pagination : the sort it was read with and the sort key values of the
+ * last row returned, as base64url encoded JSON. Clients only pass it back, the page after it starts with
+ * {@code WHERE (key) > (values)} instead of skipping {@code OFFSET} rows.
+ */
+public final class KeysetCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Token> TOKEN = new TypeReference<>() {
+    };
+
+    private KeysetCursor() {
+    }
+
+    // keys of the last row returned, by sort property
+    public static String encode(Map<String, Object> keys, Sort sort) {
+        try {
+            Token token = new Token(orders(sort), keys);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(token));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // null or blank : first page, no keys. A cursor continues only the sort it was read with, same keys in the same
+    // directions : the keys of a DESC page would skip or repeat rows of the ASC one
+    public static Map<String, Object> decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return Map.of();
+        }
+        Token token = decode(cursor);
+        Set<String> sortKeys = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        if (!orders(sort).equals(token.sort()) || !token.keys().keySet().equals(sortKeys)) {
+            throw new IllegalArgumentException("Cursor does not belong to the sort " + sort);
+        }
+        return token.keys();
+    }
+
+    private static Token decode(String cursor) {
+        try {
+            Token token = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), TOKEN);
+            if (token.sort() == null || token.keys() == null) {
+                throw new IllegalArgumentException("Incomplete cursor");
+            }
+            return token;
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor : " + cursor);
+        }
+    }
+
+    // property:DIRECTION in sort order, e.g. [salary:DESC, id:DESC]
+    private static List<String> orders(Sort sort) {
+        return sort.stream().map(order -> order.getProperty() + ":" + order.getDirection()).toList();
+    }
+
+    record Token(List<String> sort, Map<String, Object> keys) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.javatechie.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalaryAggregateDTO {
+    // null for the whole company
+    private String deptName;
+    private long count;
+    private double sum;
+    private double average;
+    private double min;
+    private double max;
+
+    // JPQL constructor expression : SUM/MIN/MAX are null for an empty group
+    public SalaryAggregateDTO(String deptName, Long count, Double sum, Double min, Double max) {
+        this(deptName, count, sum == null ? 0 : sum, count == 0 ? 0 : (sum == null ? 0 : sum) / count,
+                min == null ? 0 : min, max == null ? 0 : max);
+    }
+
+}
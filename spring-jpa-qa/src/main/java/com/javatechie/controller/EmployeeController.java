@@ -1,11 +1,22 @@
 package com.javatechie.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.javatechie.common.EmployeeWindowDTO;
+import com.javatechie.common.SalaryAggregateDTO;
 import com.javatechie.entity.Employee;
 import com.javatechie.service.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +27,9 @@ public class EmployeeController {
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
     public Employee saveEmployee(@RequestBody Employee employee) {
         return employeeService.saveEmployee(employee);
@@ -26,9 +40,37 @@ public class EmployeeController {
         return employeeService.getEmployee(id);
     }
 
-    @GetMapping
-    public List<Employee> getEmployees() {
-        return employeeService.getEmployees();
+    // JSON array written row by row while the employees are read
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getEmployees() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> {
+                    try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(out)) {
+                        employeeService.streamEmployees(employee -> write(writer, employee));
+                    }
+                });
+    }
+
+    // one employee per line (Accept: application/x-ndjson)
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getEmployeesAsNdjson() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> {
+                    try (SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                        employeeService.streamEmployees(employee -> write(writer, employee));
+                    }
+                });
+    }
+
+    private static void write(SequenceWriter writer, Employee employee) {
+        try {
+            writer.write(employee);
+        } catch (IOException ex) {
+            // client went away, abort the query as well
+            throw new UncheckedIOException(ex);
+        }
     }
 
     @PutMapping("/{id}")
@@ -42,8 +84,8 @@ public class EmployeeController {
     }
 
     @GetMapping("/filterBySalary")
-    public List<Employee> filterBySalary(@RequestParam double salary) {
-        return employeeService.filterBySalary(salary);
+    public List<Employee> filterBySalary(@RequestParam double salary, @RequestParam(required = false) String strategy) {
+        return employeeService.filterBySalary(salary, strategy);
     }
 
     @GetMapping("/filterByAgeRange/{minAge}/{maxAge}")
@@ -57,10 +99,30 @@ public class EmployeeController {
         return averageSalary.orElse(0.0); // Return 0.0 if average salary is not present
     }
 
+    // count, sum, average, min and max of all salaries
+    @GetMapping("/salaryAggregates")
+    public SalaryAggregateDTO salaryAggregates() {
+        return employeeService.getSalaryAggregates();
+    }
+
+    @GetMapping("/salaryAggregates/departments")
+    public List<SalaryAggregateDTO> salaryAggregatesByDepartment() {
+        return employeeService.getSalaryAggregatesByDepartment();
+    }
+
+    @GetMapping("/salaryAggregates/departments/{deptName}")
+    public SalaryAggregateDTO salaryAggregates(@PathVariable String deptName) {
+        return employeeService.getSalaryAggregates(deptName);
+    }
+
 
+    // field : salary, age, deptName or name (indexed), next pages through the returned cursor
     @GetMapping("/sort")
-    public List<Employee> findEmployeesWithSorting(@RequestParam String field) {
-        return employeeService.findEmployeesWithSorting(field);
+    public EmployeeWindowDTO findEmployeesWithSorting(@RequestParam String field,
+                                                      @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "20") int pageSize) {
+        return employeeService.findEmployeesWithSorting(field, direction, cursor, pageSize);
     }
 
     @GetMapping("/page")
@@ -68,9 +130,23 @@ public class EmployeeController {
         return employeeService.findEmployeesWithPagination(offset, pageSize);
     }
 
-    // Controller method for finding employees with pagination and sorting
+    // keyset pagination : first page without cursor, then the nextCursor of the previous page
+    @GetMapping("/scroll")
+    public EmployeeWindowDTO scrollEmployees(@RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "20") int pageSize) {
+        return employeeService.scrollEmployees(cursor, pageSize);
+    }
+
+    // Controller method for finding employees with pagination and sorting.
+    // Deprecated : OFFSET + COUNT(*) per page, /sort returns keyset pages of the same sorts
+    @Deprecated
     @GetMapping("/pageAndSort")
     public Page<Employee> findEmployeesWithPaginationAndSorting(@RequestParam int offset, @RequestParam int pageSize, @RequestParam String field) {
         return employeeService.findEmployeesWithPaginationAndSorting(offset, pageSize, field);
     }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
 }
@@ -1,8 +1,10 @@
 package com.javatechie.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
@@ -12,6 +14,14 @@ import lombok.ToString;
 @NoArgsConstructor
 @ToString
 //@Table(name = "EMPLOYEE_TBL")
+// sortable fields (EmployeeSortSpec), the id makes every key unique for keyset paging
+@Table(indexes = {
+        @Index(name = "ix_employee_salary", columnList = "salary, id"),
+        @Index(name = "ix_employee_age", columnList = "age, id"),
+        @Index(name = "ix_employee_dept_name", columnList = "deptName, id"),
+        @Index(name = "ix_employee_name", columnList = "EMPNAME, id")
+})
+@EntityListeners(EmployeeSalaryListener.class)
 public class Employee {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,6 +33,13 @@ public class Employee {
     private String emailId;
     private int age;
 
+    // department and salary as last loaded or written, set by EmployeeSalaryListener
+    @Transient
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private StoredSalary storedSalary;
+
     public Employee(String name, String deptName, double salary, String emailId, int age) {
         this.name = name;
         this.deptName = deptName;
@@ -30,4 +47,11 @@ public class Employee {
         this.emailId = emailId;
         this.age = age;
     }
+
+    public record StoredSalary(String deptName, double salary) {
+
+        public static StoredSalary of(Employee employee) {
+            return new StoredSalary(employee.getDeptName(), employee.getSalary());
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.javatechie.entity;
+
+/**
+ * Receives the committed salary changes {@link EmployeeSalaryListener} sees, one call per department and salary
+ * taken out or put in. Implemented by the service keeping the aggregates, so the entities do not depend on it.
+ */
+public interface EmployeeSalaryChanges {
+
+    void added(String deptName, double salary);
+
+    void removed(String deptName, double salary);
+}
@@ -0,0 +1,78 @@
+package com.javatechie.entity;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener of {@link Employee} feeding the {@link EmployeeSalaryChanges} bean (the salary aggregates).
+ * Changes are applied once the transaction commits, a rollback leaves the aggregates untouched.
+ * Created by Hibernate through Spring while the EntityManagerFactory is built, the bean
+ * (which needs the repositories) is only looked up on the first change.
+ */
+public class EmployeeSalaryListener {
+
+    private final ObjectProvider<EmployeeSalaryChanges> salaryChanges;
+
+    public EmployeeSalaryListener(ObjectProvider<EmployeeSalaryChanges> salaryChanges) {
+        this.salaryChanges = salaryChanges;
+    }
+
+    // the values as stored, an update has to take them out again
+    @PostLoad
+    public void loaded(Employee employee) {
+        employee.setStoredSalary(Employee.StoredSalary.of(employee));
+    }
+
+    @PostPersist
+    public void persisted(Employee employee) {
+        Employee.StoredSalary current = Employee.StoredSalary.of(employee);
+        employee.setStoredSalary(current);
+        afterCommit(() -> aggregates().added(current.deptName(), current.salary()));
+    }
+
+    @PostUpdate
+    public void updated(Employee employee) {
+        Employee.StoredSalary previous = employee.getStoredSalary();
+        Employee.StoredSalary current = Employee.StoredSalary.of(employee);
+        employee.setStoredSalary(current);
+        if (current.equals(previous)) {
+            return;
+        }
+        afterCommit(() -> {
+            if (previous != null) {
+                aggregates().removed(previous.deptName(), previous.salary());
+            }
+            aggregates().added(current.deptName(), current.salary());
+        });
+    }
+
+    @PostRemove
+    public void removed(Employee employee) {
+        Employee.StoredSalary stored = employee.getStoredSalary() != null
+                ? employee.getStoredSalary()
+                : Employee.StoredSalary.of(employee);
+        afterCommit(() -> aggregates().removed(stored.deptName(), stored.salary()));
+    }
+
+    private EmployeeSalaryChanges aggregates() {
+        return salaryChanges.getObject();
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
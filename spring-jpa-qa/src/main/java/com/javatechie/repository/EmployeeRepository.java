@@ -1,14 +1,25 @@
 package com.javatechie.repository;
 
+import com.javatechie.common.SalaryAggregateDTO;
 import com.javatechie.entity.Employee;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
-public interface EmployeeRepository extends JpaRepository<Employee,Integer> {
+public interface EmployeeRepository extends JpaRepository<Employee,Integer>, JpaSpecificationExecutor<Employee> {
 
 //fetch employee by salary
     //1. method syntax
@@ -33,5 +44,28 @@ public interface EmployeeRepository extends JpaRepository<Employee,Integer> {
 
     @Query(value = "SELECT AVG(e.salary) FROM Employee e")
     Optional<Double> avgSalary();
+
+    // reconciliation of SalaryAggregateService
+    @Query(value = "SELECT NEW com.javatechie.common.SalaryAggregateDTO(e.deptName, COUNT(e), SUM(e.salary), MIN(e.salary), MAX(e.salary)) " +
+            "FROM Employee e GROUP BY e.deptName")
+    List<SalaryAggregateDTO> salaryAggregatesByDepartment();
+
+    @Query(value = "SELECT e.salary FROM Employee e WHERE e.deptName = :deptName")
+    List<Double> findSalariesByDepartment(@Param("deptName") String deptName);
+
+    @Query(value = "SELECT e.salary FROM Employee e WHERE e.deptName IS NULL")
+    List<Double> findSalariesWithoutDepartment();
+
+    // rows come from a server side cursor (useCursorFetch=true on MySQL) in chunks of the fetch size,
+    // must be consumed and closed inside a transaction. Ordered by id, which the primary key index serves without a sort
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(value = "SELECT e FROM Employee e ORDER BY e.id")
+    Stream<Employee> streamAll();
+
+    // keyset (seek) pagination : WHERE (sort keys) after (keys of the last row) ... LIMIT n, no OFFSET and no COUNT(*).
+    // keys empty for the first page. The sort must end with the id so every position is unique
+    default List<Employee> findPageAfter(Map<String, Object> keys, Sort sort, int limit) {
+        return findBy(KeysetSpecification.after(keys, sort), query -> query.sortBy(sort).limit(limit).all());
+    }
     
 }
@@ -0,0 +1,70 @@
+package com.javatechie.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seek predicate of a keyset page : the rows after the last one returned, in the order of the sort.
+ * <p>
+ * For a sort (k1, k2, ...) and the keys (v1, v2, ...) of the last row it is
+ * {@code k1 after v1 OR (k1 = v1 AND k2 after v2) OR ...}. A null key is the lowest value, the way MySQL and H2
+ * order nulls (first ascending, last descending), so the plain {@code ORDER BY} the index serves still matches.
+ * Spring Data's own keyset query compares {@code k1 > NULL} instead, which matches nothing : a page ending
+ * inside the group of nulls would drop every row after it.
+ */
+final class KeysetSpecification {
+
+    private KeysetSpecification() {
+    }
+
+    // keys empty : first page, no predicate
+    static <T> Specification<T> after(Map<String, Object> keys, Sort sort) {
+        return (root, query, builder) -> {
+            if (keys.isEmpty()) {
+                return null;
+            }
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalKeys = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                Path<Comparable<Object>> path = root.get(order.getProperty());
+                Comparable<Object> key = key(keys.get(order.getProperty()), path);
+                Predicate after = after(builder, path, key, order.getDirection());
+                if (after != null) {
+                    List<Predicate> alternative = new ArrayList<>(equalKeys);
+                    alternative.add(after);
+                    alternatives.add(builder.and(alternative.toArray(Predicate[]::new)));
+                }
+                equalKeys.add(key == null ? builder.isNull(path) : builder.equal(path, key));
+            }
+            return builder.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    // null when nothing comes after the key : null is the last value of a descending sort
+    private static Predicate after(CriteriaBuilder builder, Path<Comparable<Object>> path, Comparable<Object> key,
+                                   Sort.Direction direction) {
+        if (direction.isAscending()) {
+            return key == null ? builder.isNotNull(path) : builder.greaterThan(path, key);
+        }
+        return key == null ? null : builder.or(builder.lessThan(path, key), builder.isNull(path));
+    }
+
+    // keys come back from JSON, a salary of 90000.0 may be read as an Integer
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> key(Object value, Path<?> path) {
+        if (value == null) {
+            return null;
+        }
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(path.getJavaType());
+        return (Comparable<Object>) DefaultConversionService.getSharedInstance().convert(value, type);
+    }
+}
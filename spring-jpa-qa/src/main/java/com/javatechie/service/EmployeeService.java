@@ -1,17 +1,30 @@
 package com.javatechie.service;
 
+import com.javatechie.common.EmployeeWindowDTO;
+import com.javatechie.common.KeysetCursor;
+import com.javatechie.common.SalaryAggregateDTO;
 import com.javatechie.entity.Employee;
 import com.javatechie.repository.EmployeeRepository;
+import com.javatechie.service.query.SalaryQueryEngine;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -20,6 +33,18 @@ public class EmployeeService {
     @Autowired
     private EmployeeRepository repository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EmployeeSortSpec sortSpec;
+
+    @Autowired
+    private SalaryQueryEngine salaryQueryEngine;
+
+    @Autowired
+    private SalaryAggregateService salaryAggregateService;
+
     public Employee saveEmployee(Employee employee) {
         return repository.save(employee);
     }
@@ -29,8 +54,16 @@ public class EmployeeService {
         return employee.orElseThrow(() -> new NoSuchElementException("Employee with ID " + id + " not found"));
     }
 
-    public List<Employee> getEmployees() {
-        return repository.findAll();
+    // hands every employee to the consumer one by one instead of loading the table into a List,
+    // each entity is detached once consumed so the persistence context does not grow
+    @Transactional(readOnly = true)
+    public void streamEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = repository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
     }
 
     public Employee updateEmployee(int id, Employee updatedEmployee) {
@@ -51,22 +84,37 @@ public class EmployeeService {
 
 
 
-    public List<Employee> filterBySalary(double salary) {
-        log.info("Results with JPQL {} ",repository.findEmployeeWithJPQL(salary));
-        log.info("Results with NATIVE SQL {} ",repository.findEmployeeWithSQL(salary));
-        return repository.findBySalaryGreaterThan(salary);
+    // one query per call : JPQL, NATIVE, DERIVED or CRITERIA, null for employees.salary-query.strategy
+    public List<Employee> filterBySalary(double salary, String strategy) {
+        return salaryQueryEngine.findBySalaryGreaterThan(salary, strategy);
     }
 
     public List<Employee> findEmployeesByAgeRange(int minAge, int maxAge) {
         return  repository.findByAgeBetween(minAge, maxAge);
     }
 
+    // maintained in memory (SalaryAggregateService), no AVG over the table
     public Optional<Double> getAverageSalary() {
-        return repository.avgSalary();
+        SalaryAggregateDTO overall = salaryAggregateService.getOverall();
+        return overall.getCount() == 0 ? Optional.empty() : Optional.of(overall.getAverage());
+    }
+
+    public SalaryAggregateDTO getSalaryAggregates() {
+        return salaryAggregateService.getOverall();
     }
 
-    public List<Employee> findEmployeesWithSorting(String field){
-        return  repository.findAll(Sort.by(Sort.Direction.ASC,field));
+    public List<SalaryAggregateDTO> getSalaryAggregatesByDepartment() {
+        return salaryAggregateService.getDepartments();
+    }
+
+    public SalaryAggregateDTO getSalaryAggregates(String deptName) {
+        return salaryAggregateService.getDepartment(deptName);
+    }
+
+    // index backed sorts only, read in keyset pages
+    public EmployeeWindowDTO findEmployeesWithSorting(String field, Sort.Direction direction, String cursor, int pageSize) {
+        sortSpec.checkPageSize(pageSize);
+        return scroll(sortSpec.sortBy(field, direction), cursor, pageSize);
     }
 
     public Page<Employee> findEmployeesWithPagination(int pageNumber,int pageSize){
@@ -80,8 +128,38 @@ public class EmployeeService {
     }
 
 
+    // cursor based paging, each page costs the same however deep it is
+    public EmployeeWindowDTO scrollEmployees(String cursor, int pageSize) {
+        if (pageSize < 1 || pageSize > EmployeeSortSpec.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageSize must be between 1 and " + EmployeeSortSpec.MAX_PAGE_SIZE);
+        }
+        return scroll(Sort.by("id"), cursor, pageSize);
+    }
+
+    private EmployeeWindowDTO scroll(Sort sort, String cursor, int pageSize) {
+        // one row more than the page tells whether another page follows
+        List<Employee> rows = repository.findPageAfter(KeysetCursor.decode(cursor, sort), sort, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new EmployeeWindowDTO(rows, null);
+        }
+        List<Employee> page = new ArrayList<>(rows.subList(0, pageSize));
+        return new EmployeeWindowDTO(page, KeysetCursor.encode(keysOf(page.get(pageSize - 1), sort), sort));
+    }
+
+    private static Map<String, Object> keysOf(Employee employee, Sort sort) {
+        BeanWrapper bean = new BeanWrapperImpl(employee);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        sort.forEach(order -> keys.put(order.getProperty(), bean.getPropertyValue(order.getProperty())));
+        return keys;
+    }
+
+    /**
+     * @deprecated OFFSET pages with a COUNT(*) each, use {@link #findEmployeesWithSorting} (keyset pages of the same sorts)
+     */
+    @Deprecated
     public Page<Employee> findEmployeesWithPaginationAndSorting(int pageNumber, int pageSize, String field){
-        return repository.findAll(PageRequest.of(pageNumber, pageSize).withSort(Sort.by(field)));
+        sortSpec.checkPageSize(pageSize);
+        return repository.findAll(PageRequest.of(pageNumber, pageSize).withSort(sortSpec.sortBy(field, Sort.Direction.ASC)));
     }
 
 }
@@ -0,0 +1,88 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sorts clients may ask for : only fields leading one of the {@code @Index} entries declared on {@link Employee},
+ * so the database reads the index in order instead of sorting the whole table. Every sort ends with the id,
+ * which keeps keyset positions unique. Rejected requests are counted as {@code employees.sort.rejected}.
+ */
+@Component
+@Slf4j
+public class EmployeeSortSpec {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final Set<String> sortableFields;
+
+    private final MeterRegistry meterRegistry;
+
+    public EmployeeSortSpec(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.sortableFields = indexedFields();
+        log.info("Employee sortable fields : {}", sortableFields);
+    }
+
+    public Set<String> getSortableFields() {
+        return sortableFields;
+    }
+
+    /**
+     * @throws IllegalArgumentException for fields without an index
+     */
+    public Sort sortBy(String field, Sort.Direction direction) {
+        if (!sortableFields.contains(field)) {
+            reject("unindexed-field");
+            throw new IllegalArgumentException("Cannot sort by " + field + ", sortable fields are " + sortableFields);
+        }
+        meterRegistry.counter("employees.sort", "field", field).increment();
+        return Sort.by(direction, field).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Sorted reads always come in pages.
+     *
+     * @throws IllegalArgumentException for page sizes out of range
+     */
+    public void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            reject("unbounded");
+            throw new IllegalArgumentException("pageSize must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private void reject(String reason) {
+        meterRegistry.counter("employees.sort.rejected", "reason", reason).increment();
+    }
+
+    // leading column of each declared index, mapped back to the entity property
+    private static Set<String> indexedFields() {
+        Map<String, String> propertyByColumn = new HashMap<>();
+        for (Field field : Employee.class.getDeclaredFields()) {
+            Column column = field.getAnnotation(Column.class);
+            String columnName = column != null && !column.name().isEmpty() ? column.name() : field.getName();
+            propertyByColumn.put(columnName.toLowerCase(), field.getName());
+        }
+        Table table = Employee.class.getAnnotation(Table.class);
+        Index[] indexes = table == null ? new Index[0] : table.indexes();
+        return Arrays.stream(indexes)
+                .map(index -> index.columnList().split(",")[0].trim().toLowerCase())
+                .map(propertyByColumn::get)
+                .filter(property -> property != null && !property.equals("id"))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,159 @@
+package com.javatechie.service;
+
+import com.javatechie.common.SalaryAggregateDTO;
+import com.javatechie.entity.EmployeeSalaryChanges;
+import com.javatechie.entity.EmployeeSalaryListener;
+import com.javatechie.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sum, count, min and max of salaries, overall and per department, kept in memory so reads are O(1).
+ * <p>
+ * {@link EmployeeSalaryListener} applies every committed insert, update and delete of an {@code Employee}.
+ * Changes that bypass JPA (bulk or native updates, other applications) are caught by {@link #reconcile()},
+ * which compares each department with a {@code GROUP BY} over the table and reloads the ones that drifted.
+ * A change committing while its department is reloaded may be counted twice until the next reconcile.
+ */
+@Service
+@Slf4j
+public class SalaryAggregateService implements EmployeeSalaryChanges {
+
+    // departments are keyed by name, employees without one under ""
+    private static final String NO_DEPARTMENT = "";
+
+    private final EmployeeRepository repository;
+
+    private final Map<String, SalaryStats> departments = new ConcurrentHashMap<>();
+
+    private final Object overallLock = new Object();
+
+    private volatile SalaryAggregateDTO overall = new SalaryAggregateDTO(null, 0, 0, 0, 0, 0);
+
+    private final Counter drift;
+
+    public SalaryAggregateService(EmployeeRepository repository, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.drift = Counter.builder("employees.salary.aggregates.drift")
+                .description("Departments reloaded because their aggregates no longer matched the table")
+                .register(meterRegistry);
+    }
+
+    public SalaryAggregateDTO getOverall() {
+        return overall;
+    }
+
+    public SalaryAggregateDTO getDepartment(String deptName) {
+        SalaryStats stats = departments.get(keyOf(deptName));
+        return stats == null ? new SalaryAggregateDTO(deptName, 0, 0, 0, 0, 0) : stats.snapshot();
+    }
+
+    public List<SalaryAggregateDTO> getDepartments() {
+        return departments.values().stream()
+                .map(SalaryStats::snapshot)
+                .filter(aggregate -> aggregate.getCount() > 0)
+                .sorted(Comparator.comparing(SalaryAggregateDTO::getDeptName, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    @Override
+    public void added(String deptName, double salary) {
+        stats(deptName).add(salary);
+        refreshOverall();
+    }
+
+    @Override
+    public void removed(String deptName, double salary) {
+        stats(deptName).remove(salary);
+        refreshOverall();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${employees.salary-aggregates.reconcile-interval-ms:300000}",
+            initialDelayString = "${employees.salary-aggregates.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Map<String, SalaryAggregateDTO> stored = new HashMap<>();
+        repository.salaryAggregatesByDepartment().forEach(aggregate -> stored.put(keyOf(aggregate.getDeptName()), aggregate));
+
+        stored.forEach((key, aggregate) -> {
+            SalaryAggregateDTO current = stats(aggregate.getDeptName()).snapshot();
+            if (!matches(current, aggregate)) {
+                if (current.getCount() > 0) {
+                    drift.increment();
+                    log.warn("Salary aggregates of department {} drifted : {} in memory, {} stored", aggregate.getDeptName(), current, aggregate);
+                }
+                reload(aggregate.getDeptName());
+            }
+        });
+        // departments without employees left
+        departments.forEach((key, stats) -> {
+            if (!stored.containsKey(key) && stats.snapshot().getCount() > 0) {
+                drift.increment();
+                stats.replaceWith(List.of());
+            }
+        });
+        refreshOverall();
+    }
+
+    private void reload(String deptName) {
+        List<Double> salaries = deptName == null
+                ? repository.findSalariesWithoutDepartment()
+                : repository.findSalariesByDepartment(deptName);
+        stats(deptName).replaceWith(salaries);
+    }
+
+    // sums are compared with a tolerance, add/remove in a different order rounds differently
+    private static boolean matches(SalaryAggregateDTO current, SalaryAggregateDTO stored) {
+        return current.getCount() == stored.getCount()
+                && Math.abs(current.getSum() - stored.getSum()) <= 1e-9 * Math.abs(stored.getSum()) + 0.01
+                && current.getMin() == stored.getMin()
+                && current.getMax() == stored.getMax();
+    }
+
+    private SalaryStats stats(String deptName) {
+        return departments.computeIfAbsent(keyOf(deptName), key -> new SalaryStats(deptName));
+    }
+
+    // recomputed from the department snapshots after every change, the last caller sees all of them
+    private void refreshOverall() {
+        synchronized (overallLock) {
+            long count = 0;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (SalaryStats stats : departments.values()) {
+                SalaryAggregateDTO department = stats.snapshot();
+                if (department.getCount() == 0) {
+                    continue;
+                }
+                count += department.getCount();
+                sum += department.getSum();
+                min = Math.min(min, department.getMin());
+                max = Math.max(max, department.getMax());
+            }
+            overall = count == 0
+                    ? new SalaryAggregateDTO(null, 0, 0, 0, 0, 0)
+                    : new SalaryAggregateDTO(null, count, sum, sum / count, min, max);
+        }
+    }
+
+    private static String keyOf(String deptName) {
+        return Objects.requireNonNullElse(deptName, NO_DEPARTMENT);
+    }
+}
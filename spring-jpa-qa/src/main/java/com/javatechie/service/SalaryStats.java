@@ -0,0 +1,78 @@
+package com.javatechie.service;
+
+import com.javatechie.common.SalaryAggregateDTO;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Salaries of one department as a sorted multiset, so min and max stay exact when the current
+ * min or max employee leaves. Updates are serialized, reads only take the published snapshot.
+ */
+class SalaryStats {
+
+    private final String deptName;
+
+    // salary -> number of employees earning it
+    private final TreeMap<Double, Integer> salaries = new TreeMap<>();
+
+    private long count;
+
+    private double sum;
+
+    private volatile SalaryAggregateDTO snapshot;
+
+    SalaryStats(String deptName) {
+        this.deptName = deptName;
+        this.snapshot = publish();
+    }
+
+    synchronized void add(double salary) {
+        salaries.merge(salary, 1, Integer::sum);
+        count++;
+        sum += salary;
+        snapshot = publish();
+    }
+
+    synchronized void remove(double salary) {
+        Integer employees = salaries.get(salary);
+        if (employees == null) {
+            // never counted, the next reconcile rebuilds this department
+            return;
+        }
+        if (employees == 1) {
+            salaries.remove(salary);
+        } else {
+            salaries.put(salary, employees - 1);
+        }
+        count--;
+        sum -= salary;
+        snapshot = publish();
+    }
+
+    synchronized void replaceWith(Collection<Double> loaded) {
+        salaries.clear();
+        count = 0;
+        sum = 0;
+        for (double salary : loaded) {
+            salaries.merge(salary, 1, Integer::sum);
+            count++;
+            sum += salary;
+        }
+        snapshot = publish();
+    }
+
+    SalaryAggregateDTO snapshot() {
+        return snapshot;
+    }
+
+    private SalaryAggregateDTO publish() {
+        if (count == 0) {
+            return new SalaryAggregateDTO(deptName, 0, 0, 0, 0, 0);
+        }
+        Map.Entry<Double, Integer> min = salaries.firstEntry();
+        Map.Entry<Double, Integer> max = salaries.lastEntry();
+        return new SalaryAggregateDTO(deptName, count, sum, sum / count, min.getKey(), max.getKey());
+    }
+}
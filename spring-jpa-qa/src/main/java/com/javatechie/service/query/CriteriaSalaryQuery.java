@@ -0,0 +1,34 @@
+package com.javatechie.service.query;
+
+import com.javatechie.entity.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class CriteriaSalaryQuery implements SalaryQueryStrategy {
+
+    private final EntityManager entityManager;
+
+    public CriteriaSalaryQuery(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public String name() {
+        return "CRITERIA";
+    }
+
+    @Override
+    public List<Employee> findBySalaryGreaterThan(double salary) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = builder.createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+        query.where(builder.greaterThan(employee.get("salary"), salary));
+        return entityManager.createQuery(query).getResultList();
+    }
+}
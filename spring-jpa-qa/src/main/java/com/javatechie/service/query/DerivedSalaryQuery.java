@@ -0,0 +1,27 @@
+package com.javatechie.service.query;
+
+import com.javatechie.entity.Employee;
+import com.javatechie.repository.EmployeeRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class DerivedSalaryQuery implements SalaryQueryStrategy {
+
+    private final EmployeeRepository repository;
+
+    public DerivedSalaryQuery(EmployeeRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public String name() {
+        return "DERIVED";
+    }
+
+    @Override
+    public List<Employee> findBySalaryGreaterThan(double salary) {
+        return repository.findBySalaryGreaterThan(salary);
+    }
+}
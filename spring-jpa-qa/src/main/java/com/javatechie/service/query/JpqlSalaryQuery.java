@@ -0,0 +1,27 @@
+package com.javatechie.service.query;
+
+import com.javatechie.entity.Employee;
+import com.javatechie.repository.EmployeeRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class JpqlSalaryQuery implements SalaryQueryStrategy {
+
+    private final EmployeeRepository repository;
+
+    public JpqlSalaryQuery(EmployeeRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    public String name() {
+        return "JPQL";
+    }
+
+    @Override
+    public List<Employee> findBySalaryGreaterThan(double salary) {
+        return repository.findEmployeeWithJPQL(salary);
+    }
+}
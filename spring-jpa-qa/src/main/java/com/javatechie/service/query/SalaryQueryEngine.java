@@ -0,0 +1,76 @@
+package com.javatechie.service.query;
+
+import com.javatechie.entity.Employee;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the salary filter with exactly one {@link SalaryQueryStrategy} per call : the one asked for,
+ * else {@code employees.salary-query.strategy}. Each run is recorded as {@code employees.salary.query}
+ * (time) and {@code employees.salary.query.rows} (row count), tagged with the strategy.
+ */
+@Component
+@Slf4j
+public class SalaryQueryEngine {
+
+    private final Map<String, MeteredStrategy> strategies = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    private final String defaultStrategy;
+
+    public SalaryQueryEngine(List<SalaryQueryStrategy> strategies,
+                             MeterRegistry meterRegistry,
+                             @Value("${employees.salary-query.strategy:JPQL}") String defaultStrategy) {
+        strategies.forEach(strategy -> this.strategies.put(strategy.name(), MeteredStrategy.of(strategy, meterRegistry)));
+        this.defaultStrategy = strategy(defaultStrategy).strategy().name();
+    }
+
+    public List<String> getStrategies() {
+        return strategies.values().stream().map(metered -> metered.strategy().name()).toList();
+    }
+
+    /**
+     * @param strategyName null for the configured default
+     */
+    public List<Employee> findBySalaryGreaterThan(double salary, String strategyName) {
+        MeteredStrategy metered = strategy(strategyName == null ? defaultStrategy : strategyName);
+        long start = System.nanoTime();
+        List<Employee> employees = metered.strategy().findBySalaryGreaterThan(salary);
+        long elapsed = System.nanoTime() - start;
+
+        metered.timer().record(elapsed, TimeUnit.NANOSECONDS);
+        metered.rows().record(employees.size());
+        log.debug("{} salary query returned {} rows in {} ms", metered.strategy().name(), employees.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return employees;
+    }
+
+    private MeteredStrategy strategy(String name) {
+        MeteredStrategy metered = strategies.get(name);
+        if (metered == null) {
+            throw new IllegalArgumentException("Unknown query strategy " + name + ", available : " + strategies.keySet());
+        }
+        return metered;
+    }
+
+    // meters registered once per strategy, the query path only records
+    private record MeteredStrategy(SalaryQueryStrategy strategy, Timer timer, DistributionSummary rows) {
+
+        static MeteredStrategy of(SalaryQueryStrategy strategy, MeterRegistry meterRegistry) {
+            return new MeteredStrategy(strategy,
+                    Timer.builder("employees.salary.query")
+                            .tag("strategy", strategy.name())
+                            .register(meterRegistry),
+                    DistributionSummary.builder("employees.salary.query.rows")
+                            .tag("strategy", strategy.name())
+                            .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.javatechie.service.query;
+
+import com.javatechie.entity.Employee;
+
+import java.util.List;
+
+/**
+ * One way of running "employees earning more than x", picked per call by {@link SalaryQueryEngine}.
+ * Implementations are Spring beans, a new one is available under its {@link #name()} as soon as it is declared.
+ */
+public interface SalaryQueryStrategy {
+
+    String name();
+
+    List<Employee> findBySalaryGreaterThan(double salary);
+}
@@ -0,0 +1,42 @@
+package com.javatechie;
+
+import com.javatechie.entity.Employee;
+import com.javatechie.repository.EmployeeRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Employee rows shared by the tests.
+ */
+public final class EmployeeFixtures {
+
+    private EmployeeFixtures() {
+    }
+
+    /**
+     * Replaces every employee with Basant (IT, 90,000), Santosh (HR, 60,000) and Ravi (IT, 75,000).
+     *
+     * @return the saved employees, in that order
+     */
+    public static List<Employee> resetEmployees(EmployeeRepository repository) {
+        repository.deleteAll();
+        return repository.saveAll(List.of(
+                new Employee("Basant", "IT", 90000, "basant@gmail.com", 30),
+                new Employee("Santosh", "HR", 60000, "santosh@gmail.com", 41),
+                new Employee("Ravi", "IT", 75000, "ravi@gmail.com", 26)));
+    }
+
+    /**
+     * Inserts {@code count} generated employees in one JDBC batch : 20 departments, salaries from 30,000 to 129,900
+     * in steps of 100, so a salary filter selects a predictable share of the rows.
+     */
+    public static void insertGenerated(JdbcTemplate jdbcTemplate, int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{"emp-" + i, "DEPT-" + (i % 20), 30000 + (i % 1000) * 100.0, "emp" + i + "@mail.com", 20 + i % 40});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO Employee (EMPNAME, deptName, salary, emailId, age) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,151 @@
+package com.javatechie.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatechie.EmployeeFixtures;
+import com.javatechie.common.EmployeeWindowDTO;
+import com.javatechie.entity.Employee;
+import com.javatechie.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class EmployeeControllerTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void employees() {
+        EmployeeFixtures.resetEmployees(repository);
+    }
+
+    @Test
+    void employeesAreStreamedAsJsonArray() throws Exception {
+        ResponseEntity<String> response = get("/employees", MediaType.APPLICATION_JSON);
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        Employee[] employees = objectMapper.readValue(response.getBody(), Employee[].class);
+        assertEquals(List.of("Basant", "Santosh", "Ravi"), List.of(employees).stream().map(Employee::getName).toList());
+    }
+
+    @Test
+    void employeesAreStreamedAsNdjson() throws Exception {
+        ResponseEntity<String> response = get("/employees", MediaType.APPLICATION_NDJSON);
+
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        List<String> lines = response.getBody().lines().toList();
+        assertEquals(3, lines.size());
+        assertEquals("Santosh", objectMapper.readValue(lines.get(1), Employee.class).getName());
+    }
+
+    @Test
+    void scrollFollowsTheCursorToTheLastPage() {
+        EmployeeWindowDTO first = restTemplate.getForObject("/employees/scroll?pageSize=2", EmployeeWindowDTO.class);
+        assertEquals(List.of("Basant", "Santosh"), first.getContent().stream().map(Employee::getName).toList());
+        assertNotNull(first.getNextCursor());
+
+        EmployeeWindowDTO second = restTemplate.getForObject("/employees/scroll?pageSize=2&cursor={cursor}",
+                EmployeeWindowDTO.class, first.getNextCursor());
+        assertEquals(List.of("Ravi"), second.getContent().stream().map(Employee::getName).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void invalidCursorIsRejected() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/employees/scroll?cursor=not-a-cursor", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void sortedPagesFollowTheIndexedField() {
+        EmployeeWindowDTO first = restTemplate.getForObject("/employees/sort?field=salary&direction=DESC&pageSize=2",
+                EmployeeWindowDTO.class);
+        assertEquals(List.of("Basant", "Ravi"), first.getContent().stream().map(Employee::getName).toList());
+
+        EmployeeWindowDTO second = restTemplate.getForObject("/employees/sort?field=salary&direction=DESC&pageSize=2&cursor={cursor}",
+                EmployeeWindowDTO.class, first.getNextCursor());
+        assertEquals(List.of("Santosh"), second.getContent().stream().map(Employee::getName).toList());
+        assertNull(second.getNextCursor());
+
+        // a cursor of another sort cannot continue this one, nor the same field in the other direction
+        ResponseEntity<String> mixed = restTemplate.getForEntity("/employees/sort?field=age&cursor={cursor}",
+                String.class, first.getNextCursor());
+        assertEquals(HttpStatus.BAD_REQUEST, mixed.getStatusCode());
+        ResponseEntity<String> reversed = restTemplate.getForEntity("/employees/sort?field=salary&direction=ASC&cursor={cursor}",
+                String.class, first.getNextCursor());
+        assertEquals(HttpStatus.BAD_REQUEST, reversed.getStatusCode());
+    }
+
+    @Test
+    void pagesEndingAmongNullKeysContinueToTheLastRow() {
+        repository.saveAll(List.of(
+                new Employee("Asha", null, 50000, "asha@gmail.com", 35),
+                new Employee("Meera", null, 55000, "meera@gmail.com", 29),
+                new Employee("Kiran", null, 65000, "kiran@gmail.com", 44)));
+
+        // nulls first : the first cursor stops inside them
+        assertEquals(List.of(List.of("Asha", "Meera"), List.of("Kiran", "Santosh"), List.of("Basant", "Ravi")),
+                namesOfEveryPage("/employees/sort?field=deptName&direction=ASC&pageSize=2"));
+        // nulls last : the second cursor stops inside them
+        assertEquals(List.of(List.of("Ravi", "Basant"), List.of("Santosh", "Kiran"), List.of("Meera", "Asha")),
+                namesOfEveryPage("/employees/sort?field=deptName&direction=DESC&pageSize=2"));
+    }
+
+    @Test
+    void unindexedOrUnboundedSortsAreRejected() {
+        double rejected = meterRegistry.counter("employees.sort.rejected", "reason", "unindexed-field").count();
+
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity("/employees/sort?field=emailId", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity("/employees/sort?field=salary&pageSize=100000", String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.getForEntity("/employees/pageAndSort?offset=0&pageSize=5&field=emailId", String.class).getStatusCode());
+
+        assertEquals(rejected + 2, meterRegistry.counter("employees.sort.rejected", "reason", "unindexed-field").count());
+        assertEquals(1, meterRegistry.counter("employees.sort.rejected", "reason", "unbounded").count());
+    }
+
+    private List<List<String>> namesOfEveryPage(String uri) {
+        List<List<String>> pages = new ArrayList<>();
+        EmployeeWindowDTO page = restTemplate.getForObject(uri, EmployeeWindowDTO.class);
+        pages.add(page.getContent().stream().map(Employee::getName).toList());
+        while (page.getNextCursor() != null) {
+            page = restTemplate.getForObject(uri + "&cursor={cursor}", EmployeeWindowDTO.class, page.getNextCursor());
+            pages.add(page.getContent().stream().map(Employee::getName).toList());
+        }
+        return pages;
+    }
+
+    private ResponseEntity<String> get(String path, MediaType accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(accept));
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
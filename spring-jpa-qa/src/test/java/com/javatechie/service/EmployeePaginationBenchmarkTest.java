@@ -0,0 +1,73 @@
+package com.javatechie.service;
+
+import com.javatechie.EmployeeFixtures;
+import com.javatechie.entity.Employee;
+import com.javatechie.repository.EmployeeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Page 10,000 (page size 10) read with LIMIT/OFFSET + COUNT(*) versus a keyset cursor :
+ * {@code mvn test -Dbenchmark=true -Dtest=EmployeePaginationBenchmarkTest}
+ * <p>
+ * In-memory H2 skips offset rows cheaply and counts from table metadata, run it against MySQL,
+ * where OFFSET reads and discards every skipped row, for numbers that matter.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmployeePaginationBenchmarkTest {
+
+    private static final int ROWS = 200_000;
+    private static final int PAGE = 10_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int RUNS = 50;
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deepPageWithOffsetAndKeyset() {
+        EmployeeFixtures.insertGenerated(jdbcTemplate, ROWS);
+
+        // the cursor a client would hold after reading the previous 9,999 pages
+        int lastIdBefore = jdbcTemplate.queryForObject("SELECT id FROM Employee ORDER BY id LIMIT 1 OFFSET ?",
+                Integer.class, PAGE * PAGE_SIZE - 1);
+        Map<String, Object> cursor = Map.of("id", lastIdBefore);
+
+        Supplier<List<Employee>> offset = () -> repository.findAll(PageRequest.of(PAGE, PAGE_SIZE, Sort.by("id"))).getContent();
+        Supplier<List<Employee>> keyset = () -> repository.findPageAfter(cursor, Sort.by("id"), PAGE_SIZE);
+        assertEquals(offset.get(), keyset.get());
+
+        double offsetMillis = averageMillis(offset);
+        double keysetMillis = averageMillis(keyset);
+        System.out.printf("page %d of %d rows, offset : %.2f ms, keyset : %.2f ms%n", PAGE, ROWS, offsetMillis, keysetMillis);
+    }
+
+    private static double averageMillis(Supplier<List<Employee>> query) {
+        // warm up
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / RUNS;
+    }
+}
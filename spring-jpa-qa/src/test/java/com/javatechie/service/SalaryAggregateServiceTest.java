@@ -0,0 +1,95 @@
+package com.javatechie.service;
+
+import com.javatechie.EmployeeFixtures;
+import com.javatechie.common.SalaryAggregateDTO;
+import com.javatechie.entity.Employee;
+import com.javatechie.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SalaryAggregateServiceTest {
+
+    @Autowired
+    private SalaryAggregateService aggregates;
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Employee basant;
+
+    @BeforeEach
+    void employees() {
+        basant = EmployeeFixtures.resetEmployees(repository).get(0);
+    }
+
+    @Test
+    void savesUpdatesAndDeletesAreApplied() {
+        assertAggregate(aggregates.getOverall(), 3, 225000, 60000, 90000);
+        assertAggregate(aggregates.getDepartment("IT"), 2, 165000, 75000, 90000);
+
+        // moves to HR with a raise
+        basant.setDeptName("HR");
+        basant.setSalary(95000);
+        basant = repository.save(basant);
+        assertAggregate(aggregates.getDepartment("IT"), 1, 75000, 75000, 75000);
+        assertAggregate(aggregates.getDepartment("HR"), 2, 155000, 60000, 95000);
+
+        // the max leaves
+        repository.delete(basant);
+        assertAggregate(aggregates.getOverall(), 2, 135000, 60000, 75000);
+        assertAggregate(aggregates.getDepartment("HR"), 1, 60000, 60000, 60000);
+        assertEquals(List.of("HR", "IT"), aggregates.getDepartments().stream().map(SalaryAggregateDTO::getDeptName).toList());
+    }
+
+    @Test
+    void rolledBackChangesAreNotApplied() {
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.save(new Employee("Amit", "IT", 150000, "amit@gmail.com", 35));
+            status.setRollbackOnly();
+        });
+
+        assertAggregate(aggregates.getOverall(), 3, 225000, 60000, 90000);
+    }
+
+    @Test
+    void reconcileRepairsChangesMadeOutsideJpa() {
+        double drifted = meterRegistry.get("employees.salary.aggregates.drift").counter().count();
+        jdbcTemplate.update("UPDATE Employee SET salary = 100000 WHERE id = ?", basant.getId());
+        assertAggregate(aggregates.getDepartment("IT"), 2, 165000, 75000, 90000);
+
+        aggregates.reconcile();
+
+        assertAggregate(aggregates.getDepartment("IT"), 2, 175000, 75000, 100000);
+        assertAggregate(aggregates.getOverall(), 3, 235000, 60000, 100000);
+        assertEquals(drifted + 1, meterRegistry.get("employees.salary.aggregates.drift").counter().count());
+    }
+
+    private static void assertAggregate(SalaryAggregateDTO aggregate, long count, double sum, double min, double max) {
+        assertEquals(count, aggregate.getCount());
+        assertEquals(sum, aggregate.getSum(), 0.001);
+        assertEquals(sum / count, aggregate.getAverage(), 0.001);
+        assertEquals(min, aggregate.getMin());
+        assertEquals(max, aggregate.getMax());
+    }
+}
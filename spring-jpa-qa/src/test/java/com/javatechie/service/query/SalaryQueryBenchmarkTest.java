@@ -0,0 +1,54 @@
+package com.javatechie.service.query;
+
+import com.javatechie.EmployeeFixtures;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+/**
+ * Time per call of every salary query strategy, for a selective and an unselective filter :
+ * {@code mvn test -Dbenchmark=true -Dtest=SalaryQueryBenchmarkTest}
+ * <p>
+ * Run it against the production database engine before changing {@code employees.salary-query.strategy},
+ * in-memory H2 only shows the ORM overhead of each strategy.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SalaryQueryBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+    private static final int RUNS = 30;
+
+    @Autowired
+    private SalaryQueryEngine engine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void compareStrategies() {
+        EmployeeFixtures.insertGenerated(jdbcTemplate, ROWS);
+
+        // top 1% (index range scan) and top 50% of the salaries
+        for (double salary : new double[]{129_000, 80_000}) {
+            for (String strategy : engine.getStrategies()) {
+                for (int i = 0; i < RUNS; i++) {
+                    engine.findBySalaryGreaterThan(salary, strategy);
+                }
+                int count = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < RUNS; i++) {
+                    count = engine.findBySalaryGreaterThan(salary, strategy).size();
+                }
+                System.out.printf("salary > %.0f %-8s : %8.2f ms, %d rows%n",
+                        salary, strategy, (System.nanoTime() - start) / 1_000_000.0 / RUNS, count);
+            }
+        }
+    }
+}
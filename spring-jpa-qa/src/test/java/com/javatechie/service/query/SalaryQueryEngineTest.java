@@ -0,0 +1,52 @@
+package com.javatechie.service.query;
+
+import com.javatechie.EmployeeFixtures;
+import com.javatechie.entity.Employee;
+import com.javatechie.repository.EmployeeRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SalaryQueryEngineTest {
+
+    @Autowired
+    private SalaryQueryEngine engine;
+
+    @Autowired
+    private EmployeeRepository repository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void employees() {
+        EmployeeFixtures.resetEmployees(repository);
+    }
+
+    @Test
+    void everyStrategyReturnsTheSameRowsAndReportsThem() {
+        assertEquals(List.of("CRITERIA", "DERIVED", "JPQL", "NATIVE"), engine.getStrategies());
+        for (String strategy : engine.getStrategies()) {
+            List<String> names = engine.findBySalaryGreaterThan(70000, strategy).stream().map(Employee::getName).sorted().toList();
+
+            assertEquals(List.of("Basant", "Ravi"), names, strategy);
+            assertEquals(1, meterRegistry.get("employees.salary.query").tag("strategy", strategy).timer().count());
+            assertEquals(2, meterRegistry.get("employees.salary.query.rows").tag("strategy", strategy).summary().totalAmount());
+        }
+    }
+
+    @Test
+    void unknownStrategyIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> engine.findBySalaryGreaterThan(70000, "HQL"));
+    }
+}
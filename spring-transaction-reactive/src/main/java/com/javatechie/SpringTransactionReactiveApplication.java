@@ -0,0 +1,13 @@
+package com.javatechie;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class SpringTransactionReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(SpringTransactionReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.javatechie.controller;
+
+import com.javatechie.entity.Order;
+import com.javatechie.service.OrderProcessingService;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderProcessingController {
+
+    private final OrderProcessingService orderProcessingService;
+
+    public OrderProcessingController(OrderProcessingService orderProcessingService) {
+        this.orderProcessingService = orderProcessingService;
+    }
+
+    /**
+     * API to place an order, same contract as the blocking {@code POST /api/orders}
+     *
+     * @param order the order details
+     * @return the processed order with updated total price
+     */
+    @PostMapping
+    public Mono<Order> placeOrder(@RequestBody Order order) {
+        return orderProcessingService.placeOrder(order);
+    }
+}
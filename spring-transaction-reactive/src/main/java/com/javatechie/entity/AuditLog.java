@@ -0,0 +1,30 @@
+package com.javatechie.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Table("AuditLog")
+@Data
+@NoArgsConstructor
+public class AuditLog {
+
+    @Id
+    private Long id;
+
+    @Column("orderId")
+    private Long orderId;  // The order associated with the log
+
+    private String action;  // Action taken (e.g., "Order Placed", "Payment Failed")
+
+    private LocalDateTime timestamp = LocalDateTime.now();  // Default timestamp is the current time
+
+    public AuditLog(Long orderId, String action) {
+        this.orderId = orderId;
+        this.action = action;
+    }
+}
@@ -0,0 +1,23 @@
+package com.javatechie.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("ORDERS")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Order {
+    // client supplied, new orders are inserted with R2dbcEntityTemplate.insert (save would update)
+    @Id
+    private int id;
+    @Column("productId")
+    private int productId;
+    private int quantity;
+    @Column("totalPrice")
+    private double totalPrice;
+}
@@ -0,0 +1,30 @@
+package com.javatechie.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("Product")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Product {
+    @Id
+    private Integer id;
+    private String name;
+    private double price;
+    @Column("stockQuantity")
+    private int stockQuantity;
+    // bulk stock updates bump it as well, same as the blocking module
+    @Version
+    private Long version;
+
+    public Product(String name, double price, int stockQuantity) {
+        this(null, name, price, stockQuantity, null);
+    }
+
+}
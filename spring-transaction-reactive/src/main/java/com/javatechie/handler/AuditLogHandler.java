@@ -0,0 +1,31 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.AuditLog;
+import com.javatechie.entity.Order;
+import com.javatechie.repository.AuditLogRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+@Service
+public class AuditLogHandler {
+
+    private final AuditLogRepository auditLogRepository;
+
+    private final TransactionalOperator required;
+
+    public AuditLogHandler(AuditLogRepository auditLogRepository, ReactiveTransactionManager transactionManager) {
+        this.auditLogRepository = auditLogRepository;
+        this.required = TransactionalOperator.create(transactionManager,
+                new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED));
+    }
+
+    // REQUIRED : written and rolled back together with the order when called inside its transaction
+    public Mono<AuditLog> logAuditDetails(Order order, String action) {
+        return auditLogRepository.save(new AuditLog((long) order.getId(), action))
+                .as(required::transactional);
+    }
+}
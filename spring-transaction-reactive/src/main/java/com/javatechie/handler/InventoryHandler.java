@@ -0,0 +1,30 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+public class InventoryHandler {
+
+    private final InventoryRepository inventoryRepository;
+
+    public InventoryHandler(InventoryRepository inventoryRepository) {
+        this.inventoryRepository = inventoryRepository;
+    }
+
+    public Mono<Product> getProduct(int id) {
+        return inventoryRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Product not available with id : " + id)));
+    }
+
+    /**
+     * Joins the order transaction of the caller.
+     *
+     * @return false if not enough stock is left
+     */
+    public Mono<Boolean> reserveStock(int productId, int quantity) {
+        return inventoryRepository.reserveStock(productId, quantity).map(updated -> updated == 1);
+    }
+}
@@ -0,0 +1,21 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.Order;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+public class OrderHandler {
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    public OrderHandler(R2dbcEntityTemplate entityTemplate) {
+        this.entityTemplate = entityTemplate;
+    }
+
+    // insert, not save : the id is client supplied, save would update an existing order
+    public Mono<Order> saveOrder(Order order) {
+        return entityTemplate.insert(order);
+    }
+}
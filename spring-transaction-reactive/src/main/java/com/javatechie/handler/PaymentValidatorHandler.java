@@ -0,0 +1,49 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+@Service
+public class PaymentValidatorHandler {
+
+    private final AuditLogHandler auditLogHandler;
+
+    private final TransactionalOperator nested;
+
+    public PaymentValidatorHandler(AuditLogHandler auditLogHandler, ReactiveTransactionManager transactionManager) {
+        this.auditLogHandler = auditLogHandler;
+        // R2dbcTransactionManager opens a savepoint on the order connection
+        this.nested = TransactionalOperator.create(transactionManager,
+                new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_NESTED));
+    }
+
+    public Mono<Void> validatePayment(Order order) {
+        return checkPayment(order).as(nested::transactional);
+    }
+
+    // savepoint-free mode : called before the order transaction opens, failures are audited before rejecting the order
+    public Mono<Void> validatePaymentBeforeTransaction(Order order) {
+        return checkPayment(order)
+                .onErrorResume(ex -> auditLogHandler.logAuditDetails(order, "payment validation failed")
+                        .then(Mono.error(ex)));
+    }
+
+    private Mono<Void> checkPayment(Order order) {
+        // Assume payment processing happens here
+        boolean paymentSuccessful = false;
+
+        // If payment is unsuccessful, we log the payment failure
+        if (!paymentSuccessful) {
+            if (order.getTotalPrice() > 1000) {
+                return Mono.error(new RuntimeException("Error in payment validator"));
+            }
+            return auditLogHandler.logAuditDetails(order, "Payment Failed for Order").then();
+        }
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,10 @@
+package com.javatechie.repository;
+
+import com.javatechie.entity.AuditLog;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+public interface AuditLogRepository extends ReactiveCrudRepository<AuditLog, Long> {
+
+    Flux<AuditLog> findByOrderId(Long orderId);
+}
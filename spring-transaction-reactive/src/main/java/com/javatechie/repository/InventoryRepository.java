@@ -0,0 +1,16 @@
+package com.javatechie.repository;
+
+import com.javatechie.entity.Product;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+public interface InventoryRepository extends ReactiveCrudRepository<Product, Integer> {
+
+    // check and decrement in one statement, the row lock is held until the order transaction ends
+    @Modifying
+    @Query("UPDATE Product SET stockQuantity = stockQuantity - :quantity, version = version + 1 " +
+            "WHERE id = :productId AND stockQuantity >= :quantity")
+    Mono<Integer> reserveStock(int productId, int quantity);
+}
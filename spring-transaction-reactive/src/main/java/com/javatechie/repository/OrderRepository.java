@@ -0,0 +1,7 @@
+package com.javatechie.repository;
+
+import com.javatechie.entity.Order;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+public interface OrderRepository extends ReactiveCrudRepository<Order, Integer> {
+}
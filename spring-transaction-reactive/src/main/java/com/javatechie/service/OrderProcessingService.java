@@ -0,0 +1,83 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.Order;
+import com.javatechie.handler.AuditLogHandler;
+import com.javatechie.handler.InventoryHandler;
+import com.javatechie.handler.OrderHandler;
+import com.javatechie.handler.PaymentValidatorHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of spring-transaction's {@code OrderPlacementService} + {@code OrderProcessingService}.
+ * <p>
+ * {@code @Transactional} propagation is expressed with one {@link TransactionalOperator} per propagation :
+ * the order runs in a REQUIRED transaction, stock, order and audit rows join it and, with
+ * {@code payment.validation.mode=NESTED}, payment validation gets a savepoint. By default
+ * ({@code PRE_TRANSACTION}) it runs before the transaction opens.
+ */
+@Service
+public class OrderProcessingService {
+
+    private final OrderHandler orderHandler;
+
+    private final InventoryHandler inventoryHandler;
+
+    private final AuditLogHandler auditLogHandler;
+
+    private final PaymentValidatorHandler paymentValidatorHandler;
+
+    private final PaymentValidationMode paymentValidationMode;
+
+    //outer tx
+    private final TransactionalOperator required;
+
+    public OrderProcessingService(OrderHandler orderHandler,
+                                  InventoryHandler inventoryHandler,
+                                  AuditLogHandler auditLogHandler,
+                                  PaymentValidatorHandler paymentValidatorHandler,
+                                  ReactiveTransactionManager transactionManager,
+                                  @Value("${payment.validation.mode:PRE_TRANSACTION}") PaymentValidationMode paymentValidationMode) {
+        this.orderHandler = orderHandler;
+        this.inventoryHandler = inventoryHandler;
+        this.auditLogHandler = auditLogHandler;
+        this.paymentValidatorHandler = paymentValidatorHandler;
+        this.paymentValidationMode = paymentValidationMode;
+        this.required = TransactionalOperator.create(transactionManager,
+                new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED));
+    }
+
+    public Mono<Order> placeOrder(Order order) {
+        // get product price, no transaction needed
+        Mono<Order> priced = inventoryHandler.getProduct(order.getProductId())
+                .map(product -> {
+                    order.setTotalPrice(order.getQuantity() * product.getPrice());
+                    return order;
+                });
+        if (paymentValidationMode == PaymentValidationMode.PRE_TRANSACTION) {
+            priced = priced.flatMap(pricedOrder -> paymentValidatorHandler.validatePaymentBeforeTransaction(pricedOrder)
+                    .thenReturn(pricedOrder));
+        }
+        return priced.flatMap(this::placeAnOrder);
+    }
+
+    private Mono<Order> placeAnOrder(Order order) {
+        // validate stock availability and update stock in inventory in one step
+        Mono<Order> placement = inventoryHandler.reserveStock(order.getProductId(), order.getQuantity())
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(() -> new RuntimeException("Insufficient stock !")))
+                //save order
+                .then(orderHandler.saveOrder(order))
+                .flatMap(saved -> auditLogHandler.logAuditDetails(saved, "order placement succeeded").thenReturn(saved));
+
+        if (paymentValidationMode == PaymentValidationMode.NESTED) {
+            placement = placement.flatMap(saved -> paymentValidatorHandler.validatePayment(saved).thenReturn(saved));
+        }
+        return placement.as(required::transactional);
+    }
+}
@@ -0,0 +1,13 @@
+package com.javatechie.service;
+
+/**
+ * Where payment is validated for an order ({@code payment.validation.mode}), as in spring-transaction.
+ */
+public enum PaymentValidationMode {
+
+    // inside the order transaction, as a NESTED transaction : one savepoint per order
+    NESTED,
+
+    // before the order transaction opens, no savepoint and no connection held while validating
+    PRE_TRANSACTION
+}
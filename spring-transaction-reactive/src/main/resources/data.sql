@@ -0,0 +1,3 @@
+MERGE INTO Product (id, name, price, stockQuantity) KEY (id) VALUES
+    (1, 'Laptop', 25000.0, 10),
+    (2, 'Samrtphone', 5000.0, 12);
@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS Product (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255),
+    price DOUBLE NOT NULL,
+    stockQuantity INT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS ORDERS (
+    id INT PRIMARY KEY,
+    productId INT NOT NULL,
+    quantity INT NOT NULL,
+    totalPrice DOUBLE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS AuditLog (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    orderId BIGINT,
+    action VARCHAR(255),
+    timestamp TIMESTAMP
+);
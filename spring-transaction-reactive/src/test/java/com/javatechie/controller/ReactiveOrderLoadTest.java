@@ -0,0 +1,58 @@
+package com.javatechie.controller;
+
+import com.javatechie.entity.Product;
+import com.javatechie.load.OrderLoad;
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static com.javatechie.load.OrderLoad.PRICE;
+import static com.javatechie.load.OrderLoad.PRODUCTS;
+import static com.javatechie.load.OrderLoad.STOCK_PER_PRODUCT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * WebFlux + R2DBC load against {@code POST /api/orders} :
+ * {@code mvn test -Dbenchmark=true -Dtest=ReactiveOrderLoadTest}
+ * <p>
+ * The load is spring-transaction's {@link OrderLoad}, run its {@code *ThreadOrderLoadTest} as well for
+ * the side-by-side numbers. Both use in-memory H2, whose internal locking dominates at high concurrency :
+ * compare them against MySQL as well.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReactiveOrderLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Test
+    void placeOrdersUnderLoad() throws Exception {
+        OrderLoad load = new OrderLoad(port);
+        load.warmUp(newProducts(Integer.MAX_VALUE));
+        int[] productIds = newProducts(STOCK_PER_PRODUCT);
+
+        OrderLoad.Result result = load.run("reactive", productIds);
+
+        // throughput and latency depend on the machine, they are only reported.
+        // Every unit is sold exactly once : no oversold product, no lost update
+        assertEquals(PRODUCTS * STOCK_PER_PRODUCT, result.succeeded());
+        for (int productId : productIds) {
+            assertEquals(0, inventoryRepository.findById(productId).block().getStockQuantity());
+        }
+    }
+
+    private int[] newProducts(int stock) {
+        int[] productIds = new int[PRODUCTS];
+        for (int p = 0; p < PRODUCTS; p++) {
+            productIds[p] = inventoryRepository.save(new Product("Mouse", PRICE, stock)).block().getId();
+        }
+        return productIds;
+    }
+}
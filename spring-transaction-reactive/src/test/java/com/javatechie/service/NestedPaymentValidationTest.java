@@ -0,0 +1,49 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.AuditLog;
+import com.javatechie.entity.Order;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.AuditLogRepository;
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// R2dbcTransactionManager supports savepoints, NESTED validation works here unlike with JPA
+@SpringBootTest(properties = "payment.validation.mode=NESTED")
+class NestedPaymentValidationTest {
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Test
+    void paymentIsValidatedBehindASavepoint() {
+        int productId = inventoryRepository.save(new Product("Laptop", 100.0, 20)).block().getId();
+
+        StepVerifier.create(orderProcessingService.placeOrder(new Order(9101, productId, 1, 0)))
+                .expectNextCount(1)
+                .verifyComplete();
+        // the failed payment rolls back the whole order, savepoint included
+        StepVerifier.create(orderProcessingService.placeOrder(new Order(9102, productId, 11, 0)))
+                .verifyErrorMessage("Error in payment validator");
+
+        assertEquals(19, inventoryRepository.findById(productId).block().getStockQuantity());
+        assertEquals(List.of("order placement succeeded", "Payment Failed for Order"), actionsOf(9101));
+        assertEquals(List.of(), actionsOf(9102));
+    }
+
+    private List<String> actionsOf(int orderId) {
+        return auditLogRepository.findByOrderId((long) orderId).map(AuditLog::getAction).collectList().block();
+    }
+}
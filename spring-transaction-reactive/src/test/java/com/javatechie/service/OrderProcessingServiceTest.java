@@ -0,0 +1,89 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.AuditLog;
+import com.javatechie.entity.Order;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.AuditLogRepository;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OrderProcessingServiceTest {
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Test
+    void orderDecrementsStockAndIsAudited() {
+        int productId = newProduct();
+
+        StepVerifier.create(orderProcessingService.placeOrder(new Order(9001, productId, 2, 0)))
+                .assertNext(order -> assertEquals(200.0, order.getTotalPrice()))
+                .verifyComplete();
+
+        assertEquals(8, stockOf(productId));
+        assertTrue(actionsOf(9001).contains("order placement succeeded"));
+    }
+
+    @Test
+    void insufficientStockRollsBackTheOrder() {
+        int productId = newProduct();
+
+        StepVerifier.create(orderProcessingService.placeOrder(new Order(9002, productId, 11, 0)))
+                .verifyErrorMessage("Error in payment validator");
+        StepVerifier.create(orderProcessingService.placeOrder(new Order(9003, productId, 10, 0)))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(orderProcessingService.placeOrder(new Order(9004, productId, 1, 0)))
+                .verifyErrorMessage("Insufficient stock !");
+
+        assertEquals(0, stockOf(productId));
+        assertFalse(Boolean.TRUE.equals(orderRepository.existsById(9004).block()));
+        // rejected before the order transaction, the audit row stays
+        assertTrue(actionsOf(9002).contains("payment validation failed"));
+        assertFalse(actionsOf(9004).contains("order placement succeeded"));
+    }
+
+    @Test
+    void duplicateOrderIdIsRejected() {
+        int productId = newProduct();
+        orderProcessingService.placeOrder(new Order(9005, productId, 1, 0)).block();
+
+        StepVerifier.create(orderProcessingService.placeOrder(new Order(9005, productId, 1, 0)))
+                .expectError()
+                .verify();
+
+        assertEquals(9, stockOf(productId));
+    }
+
+    private int newProduct() {
+        return inventoryRepository.save(new Product("Laptop", 100.0, 10)).block().getId();
+    }
+
+    private int stockOf(int productId) {
+        return inventoryRepository.findById(productId).block().getStockQuantity();
+    }
+
+    private List<String> actionsOf(int orderId) {
+        return auditLogRepository.findByOrderId((long) orderId).map(AuditLog::getAction).collectList().block();
+    }
+}
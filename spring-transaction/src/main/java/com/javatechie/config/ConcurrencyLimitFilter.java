@@ -0,0 +1,49 @@
+package com.javatechie.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets at most {@code maxConcurrentRequests} requests through at a time, the others wait
+ * up to {@code maxQueueWaitMillis} for a permit and are answered with 503 after that.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+
+    private final long maxQueueWaitMillis;
+
+    public ConcurrencyLimitFilter(int maxConcurrentRequests, long maxQueueWaitMillis) {
+        this.permits = new Semaphore(maxConcurrentRequests, true);
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxQueueWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent order requests");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
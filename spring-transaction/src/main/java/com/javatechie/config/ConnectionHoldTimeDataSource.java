@@ -0,0 +1,97 @@
+package com.javatechie.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records how long every connection is held, from {@code getConnection} to {@code close},
+ * as the {@code db.connection.hold} histogram tagged with the {@code @Transactional} method
+ * that took it (see {@link TransactionalMethodTracker}).
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    // resolved on first use, the registry may not exist yet when the DataSource is created
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+
+    // time spent in getConnection by this thread since the last reset, read by InstrumentedTransactionManager
+    private static final ThreadLocal<long[]> ACQUIRE_NANOS = ThreadLocal.withInitial(() -> new long[]{-1});
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        acquired(System.nanoTime() - start);
+        return track(connection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        acquired(System.nanoTime() - start);
+        return track(connection);
+    }
+
+    static void resetAcquireNanos() {
+        ACQUIRE_NANOS.get()[0] = -1;
+    }
+
+    // -1 when no connection was taken since the reset
+    static long acquireNanos() {
+        return ACQUIRE_NANOS.get()[0];
+    }
+
+    private static void acquired(long nanos) {
+        long[] total = ACQUIRE_NANOS.get();
+        total[0] = Math.max(total[0], 0) + nanos;
+    }
+
+    private Connection track(Connection connection) {
+        String method = TransactionalMethodTracker.currentMethod();
+        long acquired = System.nanoTime();
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, invoked, args) -> {
+                    if ("close".equals(invoked.getName()) && closed.compareAndSet(false, true)) {
+                        holdTimer(method).record(System.nanoTime() - acquired, TimeUnit.NANOSECONDS);
+                    }
+                    return invoke(connection, invoked, args);
+                });
+    }
+
+    private Timer holdTimer(String method) {
+        return holdTimers.computeIfAbsent(method, m -> Timer.builder("db.connection.hold")
+                .description("Time a connection is held between getConnection and close")
+                .tag("method", m)
+                .publishPercentileHistogram()
+                .register(meterRegistry.getObject()));
+    }
+
+    private static Object invoke(Connection connection, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+}
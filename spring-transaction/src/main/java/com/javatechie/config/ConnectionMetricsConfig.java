@@ -0,0 +1,29 @@
+package com.javatechie.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class ConnectionMetricsConfig {
+
+    // static : post processors are created before the other beans of this class
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // proxies (LazyConnectionDataSourceProxy of the replica routing) hand out handles, the pools behind them are wrapped
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                    return new ConnectionHoldTimeDataSource(dataSource, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,132 @@
+package com.javatechie.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.ResourceTransactionManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorates the application's transaction manager and reports every transaction to {@link TransactionMetrics} :
+ * whether it began a physical transaction, joined the caller's or ran as a savepoint,
+ * how long it ran, whether it rolled back and how long it waited for a connection.
+ * <p>
+ * The method is the transaction name, which Spring sets to the {@code @Transactional} method
+ * (or the {@code TransactionTemplate} name).
+ * <p>
+ * It stays a {@link ResourceTransactionManager} with the delegate's resource factory, so code that
+ * checks which DataSource or EntityManagerFactory a transaction is bound to still sees it.
+ */
+public class InstrumentedTransactionManager implements ResourceTransactionManager {
+
+    private static final String UNNAMED = "unnamed";
+
+    private final ResourceTransactionManager delegate;
+
+    // resolved on first use, the transaction manager is created before the meter registry is ready
+    private final ObjectProvider<TransactionMetrics> metrics;
+
+    private final Map<TransactionStatus, Started> started = new ConcurrentHashMap<>();
+
+    public InstrumentedTransactionManager(ResourceTransactionManager delegate, ObjectProvider<TransactionMetrics> metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public ResourceTransactionManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Object getResourceFactory() {
+        return delegate.getResourceFactory();
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        TransactionDefinition effective = definition == null ? TransactionDefinition.withDefaults() : definition;
+        String method = methodOf(effective);
+        String propagation = propagationOf(effective.getPropagationBehavior());
+        long start = System.nanoTime();
+        ConnectionHoldTimeDataSource.resetAcquireNanos();
+        TransactionStatus status;
+        try {
+            status = delegate.getTransaction(definition);
+        } catch (RuntimeException ex) {
+            metrics.getObject().beginFailed(method, propagation);
+            throw ex;
+        }
+        String kind = status.hasSavepoint() ? TransactionMetrics.SAVEPOINT
+                : status.isNewTransaction() ? TransactionMetrics.PHYSICAL
+                : TransactionMetrics.JOINED;
+        metrics.getObject().begun(method, propagation, kind, ConnectionHoldTimeDataSource.acquireNanos());
+        started.put(status, new Started(method, propagation, kind, start));
+        return status;
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        // a rollback-only transaction is rolled back by commit
+        boolean rolledBack = status.isRollbackOnly() || isGlobalRollbackOnly(status);
+        try {
+            delegate.commit(status);
+        } catch (RuntimeException ex) {
+            rolledBack = true;
+            throw ex;
+        } finally {
+            completed(status, rolledBack);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        try {
+            delegate.rollback(status);
+        } finally {
+            completed(status, true);
+        }
+    }
+
+    private void completed(TransactionStatus status, boolean rolledBack) {
+        Started begun = started.remove(status);
+        if (begun != null) {
+            metrics.getObject().completed(begun.method(), begun.propagation(), begun.kind(),
+                    System.nanoTime() - begun.startNanos(), rolledBack);
+        }
+    }
+
+    private static boolean isGlobalRollbackOnly(TransactionStatus status) {
+        return status instanceof DefaultTransactionStatus defaultStatus && defaultStatus.isGlobalRollbackOnly();
+    }
+
+    // "com.javatechie.service.OrderProcessingService.placeAnOrder" -> "OrderProcessingService.placeAnOrder"
+    static String methodOf(TransactionDefinition definition) {
+        String name = definition.getName();
+        if (name == null || name.isBlank()) {
+            return UNNAMED;
+        }
+        int methodDot = name.lastIndexOf('.');
+        int classDot = methodDot > 0 ? name.lastIndexOf('.', methodDot - 1) : -1;
+        return name.substring(classDot + 1);
+    }
+
+    static String propagationOf(int behavior) {
+        return switch (behavior) {
+            case TransactionDefinition.PROPAGATION_REQUIRED -> "REQUIRED";
+            case TransactionDefinition.PROPAGATION_SUPPORTS -> "SUPPORTS";
+            case TransactionDefinition.PROPAGATION_MANDATORY -> "MANDATORY";
+            case TransactionDefinition.PROPAGATION_REQUIRES_NEW -> "REQUIRES_NEW";
+            case TransactionDefinition.PROPAGATION_NOT_SUPPORTED -> "NOT_SUPPORTED";
+            case TransactionDefinition.PROPAGATION_NEVER -> "NEVER";
+            case TransactionDefinition.PROPAGATION_NESTED -> "NESTED";
+            default -> String.valueOf(behavior);
+        };
+    }
+
+    private record Started(String method, String propagation, String kind, long startNanos) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.javatechie.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Simulated latency at named points of the code, e.g. to keep a transaction open in the isolation demos.
+ * <p>
+ * Off unless {@code latency.injection.enabled=true} or forced by the caller, as the isolation demos do.
+ * The delay of a point is read from {@code latency.injection.<point>} (a {@link Duration}, zero when missing).
+ */
+@Component
+public class LatencyInjector {
+
+    private final boolean enabled;
+
+    private final Environment environment;
+
+    private final Map<String, Duration> delays = new ConcurrentHashMap<>();
+
+    public LatencyInjector(@Value("${latency.injection.enabled:false}") boolean enabled, Environment environment) {
+        this.enabled = enabled;
+        this.environment = environment;
+    }
+
+    public void inject(String point) throws InterruptedException {
+        inject(point, false);
+    }
+
+    /**
+     * @param force wait even when injection is disabled, for callers that need the delay to work
+     */
+    public void inject(String point, boolean force) throws InterruptedException {
+        if (!enabled && !force) {
+            return;
+        }
+        Duration delay = delays.computeIfAbsent(point, p -> {
+            String value = environment.getProperty("latency.injection." + p);
+            // same formats as Duration properties : 500ms, 5s or ISO-8601
+            return value == null ? Duration.ZERO : DurationStyle.detectAndParse(value);
+        });
+        if (!delay.isZero()) {
+            Thread.sleep(delay);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
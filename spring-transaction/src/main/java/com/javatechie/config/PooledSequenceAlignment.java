@@ -0,0 +1,71 @@
+package com.javatechie.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves every {@link PooledSequence} past the largest id already in its table, once at startup.
+ * <p>
+ * Product and AuditLog used AUTO_INCREMENT before, and rows may be inserted by hand with explicit ids
+ * (README seed data) : a sequence starting at 1 would hand out ids that are already taken.
+ * A sequence is only ever moved forward. Runs before any bean can insert, the schema exists once
+ * the EntityManagerFactory is built.
+ */
+@Component
+@Slf4j
+public class PooledSequenceAlignment {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PooledSequenceAlignment(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister instanceof AbstractEntityPersister entity
+                    && entity.getGenerator() instanceof PooledSequenceGenerator generator) {
+                align(dialect, generator.getDatabaseStructure(), entity.getTableName(), entity.getIdentifierColumnNames()[0]);
+            }
+        });
+    }
+
+    private void align(Dialect dialect, DatabaseStructure structure, String table, String idColumn) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(" + idColumn + ") FROM " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // pooled optimizer : the value v hands out the ids v - increment + 1 .. v
+        long required = maxId + structure.getIncrementSize();
+        String sequence = structure.getPhysicalName().render();
+        boolean moved;
+        if (structure.isPhysicalSequence()) {
+            // the value read here is skipped, so is its block
+            Long next = jdbcTemplate.queryForObject(dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+            moved = next != null && next < required;
+            if (moved) {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + required);
+            }
+        } else {
+            String valueColumn = SequenceStyleGenerator.DEF_VALUE_COLUMN;
+            moved = jdbcTemplate.update("UPDATE " + sequence + " SET " + valueColumn + " = ? WHERE " + valueColumn + " < ?",
+                    required, required) > 0;
+        }
+        if (moved) {
+            log.info("Moved {} to {}, past the largest id of {} ({})", sequence, required, table, maxId);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.javatechie.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Measures replication lag with a heartbeat row ({@code ReplicaHeartbeat}) : every probe writes the
+ * current time to the primary and reads the last replicated value back from the replica.
+ * Reads are routed to the replica only while the lag stays within {@code datasource.routing.max-lag}
+ * and the replica answers. The lag is accurate to one probe interval.
+ */
+@Slf4j
+public final class ReplicaLagMonitor {
+
+    private static final int HEARTBEAT_ID = 1;
+
+    private final JdbcTemplate primary;
+
+    private final JdbcTemplate replica;
+
+    private final ReplicaRoutingDataSource router;
+
+    private final long maxLagMillis;
+
+    // NaN until the replica answered once
+    private volatile double lagMillis = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, ReplicaRoutingDataSource router,
+                             MeterRegistry meterRegistry, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.router = router;
+        this.maxLagMillis = maxLag.toMillis();
+
+        Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::getLagMillis)
+                .description("Replication lag measured by the last heartbeat probe")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", router, r -> r.isReplicaUsable() ? 1 : 0)
+                .register(meterRegistry);
+        FunctionCounter.builder("datasource.routing.reads", router, ReplicaRoutingDataSource::getReplicaReads)
+                .tag("target", ReplicaRoutingDataSource.REPLICA)
+                .register(meterRegistry);
+        FunctionCounter.builder("datasource.routing.reads", router, ReplicaRoutingDataSource::getPrimaryFallbacks)
+                .tag("target", ReplicaRoutingDataSource.PRIMARY)
+                .description("Reads sent to the primary because the replica lagged or was down")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.probe-interval-ms:500}")
+    public void probe() {
+        boolean usable;
+        try {
+            long now = System.currentTimeMillis();
+            beat(now);
+            long replicated = replica.queryForObject(
+                    "SELECT beatAt FROM ReplicaHeartbeat WHERE id = ?", Long.class, HEARTBEAT_ID);
+            lagMillis = Math.max(0, now - replicated);
+            usable = lagMillis <= maxLagMillis;
+        } catch (EmptyResultDataAccessException ex) {
+            // first heartbeat not replicated yet
+            lagMillis = Double.NaN;
+            usable = false;
+        } catch (DataAccessException ex) {
+            lagMillis = Double.NaN;
+            usable = false;
+            log.warn("Replica lag probe failed, reads go to the primary : {}", ex.getMessage());
+        }
+        if (usable != router.isReplicaUsable()) {
+            log.info("Replica {} (lag {} ms, max {} ms)", usable ? "back in use" : "out of use", lagMillis, maxLagMillis);
+        }
+        router.setReplicaUsable(usable);
+    }
+
+    private void beat(long now) {
+        if (primary.update("UPDATE ReplicaHeartbeat SET beatAt = ? WHERE id = ?", now, HEARTBEAT_ID) == 0) {
+            try {
+                primary.update("INSERT INTO ReplicaHeartbeat (id, beatAt) VALUES (?, ?)", HEARTBEAT_ID, now);
+            } catch (DuplicateKeyException ex) {
+                // another instance inserted it first
+                primary.update("UPDATE ReplicaHeartbeat SET beatAt = ? WHERE id = ?", now, HEARTBEAT_ID);
+            }
+        }
+    }
+
+    public double getLagMillis() {
+        return lagMillis;
+    }
+}
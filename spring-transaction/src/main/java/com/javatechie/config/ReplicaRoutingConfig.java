@@ -0,0 +1,67 @@
+package com.javatechie.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Read replica routing, on with {@code datasource.routing.enabled=true}.
+ * <p>
+ * Replaces the auto-configured DataSource with two pools, {@code spring.datasource.*} for the primary
+ * and {@code spring.datasource.replica.*} for the replica, behind a {@link ReplicaRoutingDataSource}.
+ * The pools are not autowire candidates, inject them by name.
+ * <p>
+ * The {@link LazyConnectionDataSourceProxy} in front only takes a pooled connection on the first
+ * statement, once the transaction is read-only or not. Connection hold time is therefore recorded
+ * per pool, and connection acquire time no longer shows in {@code tx.connection.acquire}
+ * (see {@code hikaricp.connections.acquire} per pool).
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               DataSource dataSource,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${datasource.routing.max-lag:1s}") Duration maxLag) throws SQLException {
+        return new ReplicaLagMonitor(primary, replica, dataSource.unwrap(ReplicaRoutingDataSource.class), meterRegistry, maxLag);
+    }
+}
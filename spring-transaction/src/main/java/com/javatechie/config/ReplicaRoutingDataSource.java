@@ -0,0 +1,76 @@
+package com.javatechie.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends reads to the replica pool, everything else to the primary.
+ * <p>
+ * A read is a {@code readOnly} transaction or a {@code SUPPORTS} / {@code NOT_SUPPORTED} scope
+ * without a transaction. Work outside any transaction scope (startup, schema update, background
+ * writers) stays on the primary. While {@link ReplicaLagMonitor} reports the replica as lagging
+ * or down, reads fall back to the primary.
+ * <p>
+ * The decision needs the transaction flags, which Spring sets after the transaction manager took its
+ * connection : wrap it in a {@code LazyConnectionDataSourceProxy} (see {@link ReplicaRoutingConfig}).
+ */
+public final class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    // unusable until the first successful lag probe
+    private volatile boolean replicaUsable;
+
+    private final LongAdder replicaReads = new LongAdder();
+
+    private final LongAdder primaryFallbacks = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        // not a bean itself, the LazyConnectionDataSourceProxy around it is
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!isRead()) {
+            return PRIMARY;
+        }
+        if (replicaUsable) {
+            replicaReads.increment();
+            return REPLICA;
+        }
+        primaryFallbacks.increment();
+        return PRIMARY;
+    }
+
+    private static boolean isRead() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        // synchronization without a transaction : SUPPORTS / NOT_SUPPORTED scope
+        return TransactionSynchronizationManager.isSynchronizationActive();
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    void setReplicaUsable(boolean replicaUsable) {
+        this.replicaUsable = replicaUsable;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getPrimaryFallbacks() {
+        return primaryFallbacks.sum();
+    }
+}
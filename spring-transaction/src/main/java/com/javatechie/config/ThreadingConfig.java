@@ -0,0 +1,44 @@
+package com.javatechie.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread model of the service, switched with {@code spring.threads.virtual.enabled}.
+ * <p>
+ * Spring Boot already moves Tomcat request handling, {@code @Async} and {@code @Scheduled}
+ * onto virtual threads with that flag; the threads this service starts itself (isolation demos,
+ * background writers) come from {@link #workerThreadFactory(boolean)} so they follow the same switch.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    public ThreadFactory workerThreadFactory(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name("worker-", 0).factory();
+        }
+        return Thread.ofPlatform().name("worker-", 0).daemon(true).factory();
+    }
+
+    /**
+     * With virtual threads Tomcat no longer caps concurrent requests at its pool size, so every
+     * request would queue inside Hikari and fail after {@code connection-timeout}. This limit keeps
+     * the number of order requests competing for a connection close to the pool size.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> orderConcurrencyLimitFilter(
+            @Value("${orders.max-concurrent-requests:20}") int maxConcurrentRequests,
+            @Value("${orders.max-queue-wait-ms:5000}") long maxQueueWaitMillis) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(maxConcurrentRequests, maxQueueWaitMillis));
+        registration.addUrlPatterns("/api/orders", "/api/orders/*");
+        return registration;
+    }
+}
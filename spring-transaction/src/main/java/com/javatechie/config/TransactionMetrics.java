@@ -0,0 +1,149 @@
+package com.javatechie.config;
+
+import com.javatechie.dto.TransactionStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates what {@link InstrumentedTransactionManager} observes, per method and propagation.
+ * <p>
+ * Micrometer : {@code tx.duration} (timer, tags method/propagation/kind), {@code tx.connection.acquire} (timer),
+ * {@code tx.savepoints}, {@code tx.commits}, {@code tx.rollbacks} and {@code tx.begin.failures} (counters).
+ */
+@Component
+public class TransactionMetrics {
+
+    static final String PHYSICAL = "physical";
+    static final String JOINED = "joined";
+    static final String SAVEPOINT = "savepoint";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Key, Stats> stats = new ConcurrentHashMap<>();
+
+    public TransactionMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void begun(String method, String propagation, String kind, long acquireNanos) {
+        Stats s = stats(method, propagation);
+        switch (kind) {
+            case PHYSICAL -> s.physical.increment();
+            case SAVEPOINT -> {
+                s.savepoints.increment();
+                s.savepointCounter.increment();
+            }
+            default -> s.joined.increment();
+        }
+        if (acquireNanos >= 0) {
+            s.acquires.increment();
+            s.acquireNanos.add(acquireNanos);
+            s.acquireTimer.record(acquireNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void beginFailed(String method, String propagation) {
+        Stats s = stats(method, propagation);
+        s.beginFailures.increment();
+        s.beginFailureCounter.increment();
+    }
+
+    void completed(String method, String propagation, String kind, long durationNanos, boolean rolledBack) {
+        Stats s = stats(method, propagation);
+        if (rolledBack) {
+            s.rollbacks.increment();
+            s.rollbackCounter.increment();
+        } else {
+            s.commits.increment();
+            s.commitCounter.increment();
+        }
+        s.durationNanos.add(durationNanos);
+        s.maxDurationNanos.accumulate(durationNanos);
+        s.durationTimer(kind).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public List<TransactionStats> snapshot() {
+        return stats.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .sorted(Comparator.comparing(TransactionStats::method).thenComparing(TransactionStats::propagation))
+                .toList();
+    }
+
+    private Stats stats(String method, String propagation) {
+        return stats.computeIfAbsent(new Key(method, propagation), key -> new Stats(key, meterRegistry));
+    }
+
+    private record Key(String method, String propagation) {
+    }
+
+    private static class Stats {
+
+        private final LongAdder physical = new LongAdder();
+        private final LongAdder joined = new LongAdder();
+        private final LongAdder savepoints = new LongAdder();
+        private final LongAdder beginFailures = new LongAdder();
+        private final LongAdder commits = new LongAdder();
+        private final LongAdder rollbacks = new LongAdder();
+        private final LongAdder durationNanos = new LongAdder();
+        private final LongAccumulator maxDurationNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder acquires = new LongAdder();
+        private final LongAdder acquireNanos = new LongAdder();
+
+        private final Counter savepointCounter;
+        private final Counter beginFailureCounter;
+        private final Counter commitCounter;
+        private final Counter rollbackCounter;
+        private final Timer acquireTimer;
+
+        // tx.duration per kind, registered on first use so unused kinds export no series
+        private final Map<String, Timer> durationTimers = new ConcurrentHashMap<>();
+
+        private final Key key;
+
+        private final MeterRegistry meterRegistry;
+
+        private Stats(Key key, MeterRegistry meterRegistry) {
+            this.key = key;
+            this.meterRegistry = meterRegistry;
+            String[] tags = {"method", key.method(), "propagation", key.propagation()};
+            this.savepointCounter = meterRegistry.counter("tx.savepoints", tags);
+            this.beginFailureCounter = meterRegistry.counter("tx.begin.failures", tags);
+            this.commitCounter = meterRegistry.counter("tx.commits", tags);
+            this.rollbackCounter = meterRegistry.counter("tx.rollbacks", tags);
+            this.acquireTimer = Timer.builder("tx.connection.acquire")
+                    .description("Wait for a JDBC connection when a transaction begins")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private Timer durationTimer(String kind) {
+            return durationTimers.computeIfAbsent(kind, k -> Timer.builder("tx.duration")
+                    .tags("method", key.method(), "propagation", key.propagation(), "kind", k)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+
+        private TransactionStats toStats(Key key) {
+            long completed = commits.sum() + rollbacks.sum();
+            long acquired = acquires.sum();
+            return new TransactionStats(key.method(), key.propagation(),
+                    physical.sum(), joined.sum(), savepoints.sum(), beginFailures.sum(),
+                    commits.sum(), rollbacks.sum(),
+                    completed == 0 ? 0 : (double) rollbacks.sum() / completed,
+                    completed == 0 ? 0 : durationNanos.sum() / 1_000_000.0 / completed,
+                    maxDurationNanos.get() / 1_000_000.0,
+                    acquired == 0 ? 0 : acquireNanos.sum() / 1_000_000.0 / acquired);
+        }
+    }
+}
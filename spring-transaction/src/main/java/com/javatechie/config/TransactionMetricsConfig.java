@@ -0,0 +1,27 @@
+package com.javatechie.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.ResourceTransactionManager;
+
+@Configuration
+public class TransactionMetricsConfig {
+
+    // static : post processors are created before the other beans of this class.
+    // Only resource transaction managers (JPA, JDBC) are wrapped, the wrapper exposes their resource factory
+    @Bean
+    public static BeanPostProcessor instrumentedTransactionManagerPostProcessor(ObjectProvider<TransactionMetrics> metrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ResourceTransactionManager transactionManager
+                        && !(bean instanceof InstrumentedTransactionManager)) {
+                    return new InstrumentedTransactionManager(transactionManager, metrics);
+                }
+                return bean;
+            }
+        };
+    }
+}
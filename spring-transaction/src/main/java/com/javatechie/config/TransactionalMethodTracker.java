@@ -0,0 +1,44 @@
+package com.javatechie.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps the stack of {@code @Transactional} methods running on the current thread, so the
+ * connection opened for a transaction can be attributed to the method that started it.
+ * Runs outside the transaction interceptor, the method is on the stack before the connection is taken.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TransactionalMethodTracker {
+
+    static final String NO_METHOD = "none";
+
+    private static final ThreadLocal<Deque<String>> METHODS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Around("@within(org.springframework.transaction.annotation.Transactional) " +
+            "|| @annotation(org.springframework.transaction.annotation.Transactional)")
+    public Object track(ProceedingJoinPoint joinPoint) throws Throwable {
+        Deque<String> methods = METHODS.get();
+        methods.push(joinPoint.getTarget().getClass().getSimpleName() + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            methods.pop();
+        }
+    }
+
+    // innermost @Transactional method of this thread, or "none" for programmatic transactions
+    public static String currentMethod() {
+        String method = METHODS.get().peek();
+        return method == null ? NO_METHOD : method;
+    }
+}
@@ -0,0 +1,63 @@
+package com.javatechie.controller;
+
+import com.javatechie.service.isolation.IsolationBenchmark;
+import com.javatechie.service.isolation.IsolationBenchmarkResult;
+import com.javatechie.service.isolation.IsolationBenchmarkSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Isolation benchmark endpoint, only registered with {@code isolation.benchmark.enabled=true} :
+ * a run writes to the Product table and keeps up to {@code isolation.benchmark.max-threads}
+ * connections busy for {@code durationMs} per isolation level.
+ */
+@RestController
+@RequestMapping("/api/orders/isolation")
+@ConditionalOnProperty(name = "isolation.benchmark.enabled", havingValue = "true")
+public class IsolationBenchmarkController {
+
+    private final IsolationBenchmark isolationBenchmark;
+
+    private final int maxThreads;
+
+    private final long maxDurationMillis;
+
+    public IsolationBenchmarkController(IsolationBenchmark isolationBenchmark,
+                                        @Value("${isolation.benchmark.max-threads:16}") int maxThreads,
+                                        @Value("${isolation.benchmark.max-duration-ms:10000}") long maxDurationMillis) {
+        this.isolationBenchmark = isolationBenchmark;
+        this.maxThreads = maxThreads;
+        this.maxDurationMillis = maxDurationMillis;
+    }
+
+    /**
+     * API to compare isolation levels on a reader/writer mix, run it against a test database
+     *
+     * @return throughput, latency, lock failures and anomaly counts per isolation level
+     */
+    @PostMapping("/benchmark")
+    public List<IsolationBenchmarkResult> benchmarkIsolation(@RequestParam(defaultValue = "8") int readers,
+                                                            @RequestParam(defaultValue = "4") int writers,
+                                                            @RequestParam(defaultValue = "2000") long durationMs)
+            throws InterruptedException {
+        if (readers < 1 || writers < 1 || readers + writers > maxThreads) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "readers and writers must be at least 1 and at most " + maxThreads + " together");
+        }
+        if (durationMs < 1 || durationMs > maxDurationMillis) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "durationMs must be between 1 and " + maxDurationMillis);
+        }
+        IsolationBenchmarkSettings defaults = IsolationBenchmarkSettings.defaults();
+        return isolationBenchmark.run(new IsolationBenchmarkSettings(defaults.levels(), readers, writers, durationMs,
+                defaults.rollbackRatio(), defaults.insertRatio(), defaults.readGapMicros(), defaults.writeHoldMicros()));
+    }
+}
@@ -1,7 +1,15 @@
 package com.javatechie.controller;
 
+import com.javatechie.config.TransactionMetrics;
+import com.javatechie.dto.OrderResult;
+import com.javatechie.dto.ProductDetails;
+import com.javatechie.dto.TransactionStats;
 import com.javatechie.entity.Order;
-import com.javatechie.service.OrderProcessingService;
+import com.javatechie.handler.InventoryShardHandler;
+import com.javatechie.handler.ProductRecommendationHandler;
+import com.javatechie.service.OrderPlacementService;
+import com.javatechie.service.StockUpdateService;
+import com.javatechie.service.StockUpdateStrategy;
 import com.javatechie.service.isolation.ReadCommittedDemo;
 import com.javatechie.service.isolation.ReadUncommittedDemo;
 import com.javatechie.service.isolation.RepeatableReadDemo;
@@ -9,11 +17,13 @@ import com.javatechie.service.isolation.SerializableIsolationDemo;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/orders")
 public class OrderProcessingController {
 
-    private final OrderProcessingService orderProcessingService;
+    private final OrderPlacementService orderPlacementService;
 
     private final ReadUncommittedDemo readUncommittedDemo;
 
@@ -25,28 +35,105 @@ public class OrderProcessingController {
 
     private final SerializableIsolationDemo serializableIsolationDemo;
 
+    private final ProductRecommendationHandler recommendationHandler;
+
+    private final TransactionMetrics transactionMetrics;
+
+    private final InventoryShardHandler inventoryShardHandler;
+
+    private final StockUpdateService stockUpdateService;
 
-    public OrderProcessingController(OrderProcessingService orderProcessingService,
+
+    public OrderProcessingController(OrderPlacementService orderPlacementService,
                                      ReadUncommittedDemo readUncommittedDemo,
                                      ReadCommittedDemo readCommittedDemo,
                                      RepeatableReadDemo repeatableReadDemo,
-                                     SerializableIsolationDemo serializableIsolationDemo) {
-        this.orderProcessingService = orderProcessingService;
+                                     SerializableIsolationDemo serializableIsolationDemo,
+                                     ProductRecommendationHandler recommendationHandler,
+                                     TransactionMetrics transactionMetrics,
+                                     InventoryShardHandler inventoryShardHandler,
+                                     StockUpdateService stockUpdateService) {
+        this.orderPlacementService = orderPlacementService;
         this.readUncommittedDemo=readUncommittedDemo;
         this.readCommittedDemo=readCommittedDemo;
         this.repeatableReadDemo=repeatableReadDemo;
         this.serializableIsolationDemo=serializableIsolationDemo;
+        this.recommendationHandler = recommendationHandler;
+        this.transactionMetrics = transactionMetrics;
+        this.inventoryShardHandler = inventoryShardHandler;
+        this.stockUpdateService = stockUpdateService;
     }
 
     /**
      * API to place an order
      *
      * @param order the order details
+     * @param idempotencyKey optional, retries with the same key get the original order back
      * @return the processed order with updated total price
      */
     @PostMapping
-    public ResponseEntity<?> placeOrder(@RequestBody Order order) {
-        return ResponseEntity.ok(orderProcessingService.placeAnOrder(order));
+    public ResponseEntity<?> placeOrder(@RequestBody Order order,
+                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(orderPlacementService.placeOrder(order, idempotencyKey));
+    }
+
+    /**
+     * API to place many orders in a single transaction
+     *
+     * @param orders the orders to place
+     * @return success or failure of each order, in request order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderResult>> placeOrders(@RequestBody List<Order> orders) {
+        return ResponseEntity.ok(orderPlacementService.placeOrders(orders));
+    }
+
+    /**
+     * API to get the products most often bought together with a product
+     *
+     * @param productId the product being viewed
+     * @return recommended products, best first (from the last snapshot)
+     */
+    @GetMapping("/recommendations/{productId}")
+    public ResponseEntity<List<ProductDetails>> getRecommendations(@PathVariable int productId) {
+        return ResponseEntity.ok(recommendationHandler.getRecommendations(productId));
+    }
+
+    /**
+     * API to see how transactions behaved since startup
+     *
+     * @return per method and propagation : physical / joined / savepoint counts, rollback rate,
+     * duration and connection acquire wait
+     */
+    @GetMapping("/tx-stats")
+    public List<TransactionStats> getTransactionStats() {
+        return transactionMetrics.snapshot();
+    }
+
+
+    /**
+     * API to split the stock of a hot product over several rows
+     *
+     * @param count number of shards, below 2 moves the stock back to the product row
+     */
+    @PutMapping("/products/{productId}/shards")
+    public ResponseEntity<Void> shardInventory(@PathVariable int productId, @RequestParam int count) {
+        inventoryShardHandler.shard(productId, count);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * API to set the stock of a product
+     *
+     * @param strategy locking strategy, inventory.stock-update.strategy when absent
+     * @return the new stock
+     */
+    @PutMapping("/products/{productId}/stock")
+    public ResponseEntity<Integer> updateStock(@PathVariable int productId, @RequestParam int stock,
+                                               @RequestParam(required = false) StockUpdateStrategy strategy) {
+        return ResponseEntity.ok(strategy == null
+                ? stockUpdateService.setStock(productId, stock)
+                : stockUpdateService.setStock(productId, stock, strategy));
     }
 
 
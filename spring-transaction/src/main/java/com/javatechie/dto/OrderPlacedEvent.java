@@ -0,0 +1,10 @@
+package com.javatechie.dto;
+
+import com.javatechie.entity.Order;
+
+/**
+ * Published inside the order transaction, listeners that need the order to be stored
+ * react to it with {@code @TransactionalEventListener(phase = AFTER_COMMIT)}.
+ */
+public record OrderPlacedEvent(Order order) {
+}
@@ -0,0 +1,28 @@
+package com.javatechie.dto;
+
+import com.javatechie.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderResult {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILED = "FAILED";
+
+    private int orderId;
+    private String status;
+    private String message;
+    private Order order;
+
+    public static OrderResult success(Order order) {
+        return new OrderResult(order.getId(), SUCCESS, "order placement succeeded", order);
+    }
+
+    public static OrderResult failed(Order order, String reason) {
+        return new OrderResult(order.getId(), FAILED, reason, order);
+    }
+}
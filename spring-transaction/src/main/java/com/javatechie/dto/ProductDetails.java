@@ -0,0 +1,14 @@
+package com.javatechie.dto;
+
+import com.javatechie.entity.Product;
+
+/**
+ * The rarely changing part of a {@link Product}, safe to cache.
+ * Stock is deliberately left out, it must always be read from (or reserved against) the database.
+ */
+public record ProductDetails(int id, String name, double price) {
+
+    public static ProductDetails of(Product product) {
+        return new ProductDetails(product.getId(), product.getName(), product.getPrice());
+    }
+}
@@ -0,0 +1,25 @@
+package com.javatechie.dto;
+
+/**
+ * Transactions of one method and propagation since startup, as returned by {@code /api/orders/tx-stats}.
+ *
+ * @param physical       transactions that began a new physical transaction (own connection)
+ * @param joined         calls that took part in the caller's transaction
+ * @param savepoints     NESTED calls run as a savepoint of the caller's transaction
+ * @param beginFailures  calls whose transaction could not be started, e.g. savepoints not supported
+ * @param rollbackRate   rollbacks / (commits + rollbacks)
+ * @param avgAcquireMillis average wait for a connection when one was taken
+ */
+public record TransactionStats(String method,
+                               String propagation,
+                               long physical,
+                               long joined,
+                               long savepoints,
+                               long beginFailures,
+                               long commits,
+                               long rollbacks,
+                               double rollbackRate,
+                               double avgDurationMillis,
+                               double maxDurationMillis,
+                               double avgAcquireMillis) {
+}
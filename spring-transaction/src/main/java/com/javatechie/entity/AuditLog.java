@@ -1,8 +1,7 @@
 package com.javatechie.entity;
 
+import com.javatechie.config.PooledSequence;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 
 import java.time.LocalDateTime;
@@ -10,8 +9,9 @@ import java.time.LocalDateTime;
 @Entity
 public class AuditLog {
 
+    // pooled ids instead of IDENTITY, so inserts can be batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "audit_log_seq")
     private Long id;
 
     private Long orderId;  // The order associated with the log
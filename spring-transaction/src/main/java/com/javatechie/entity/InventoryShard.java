@@ -0,0 +1,37 @@
+package com.javatechie.entity;
+
+import com.javatechie.config.PooledSequence;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Part of the stock of a sharded product, see {@code InventoryShardHandler}.
+ * While a product is sharded its {@code Product.stockQuantity} stays 0.
+ */
+@Entity
+@Table(indexes = @Index(name = "ux_inventory_shard", columnList = "productId, shardNo", unique = true))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryShard {
+
+    @Id
+    @PooledSequence(name = "inventory_shard_seq")
+    private Long id;
+    private int productId;
+    private int shardNo;
+    private int stockQuantity;
+    // bumped by every stock update, as on Product
+    @Version
+    private long version;
+
+    public InventoryShard(int productId, int shardNo, int stockQuantity) {
+        this(null, productId, shardNo, stockQuantity, 0);
+    }
+}
@@ -1,14 +1,16 @@
 package com.javatechie.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "ORDERS")
+@Table(name = "ORDERS", indexes = @Index(name = "ux_orders_idempotency_key", columnList = "idempotencyKey", unique = true))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -18,5 +20,20 @@ public class Order {
     private int productId;
     private int quantity;
     private double totalPrice;
+    // optional, orders of the same customer feed the co-purchase recommendations
+    private Integer customerId;
+    // retries of the same request carry the same key, see IdempotencyHandler
+    private String idempotencyKey;
+    // SHA-256 of the request payload, a retry with the same key must send the same order
+    @Column(length = 64)
+    private String requestHash;
+
+    public Order(int id, int productId, int quantity, double totalPrice) {
+        this(id, productId, quantity, totalPrice, null);
+    }
+
+    public Order(int id, int productId, int quantity, double totalPrice, Integer customerId) {
+        this(id, productId, quantity, totalPrice, customerId, null, null);
+    }
 
 }
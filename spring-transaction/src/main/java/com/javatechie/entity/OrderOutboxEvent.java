@@ -0,0 +1,61 @@
+package com.javatechie.entity;
+
+import com.javatechie.config.PooledSequence;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Order event written in the order transaction, published later by {@code OrderOutboxRelay}.
+ * Pending while {@code processedAt} and {@code deadLetteredAt} are null, an event the sink keeps
+ * rejecting is retried after {@code nextAttemptAt} until it is dead-lettered.
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_order_outbox_pending", columnList = "processedAt, id"))
+@Data
+@NoArgsConstructor
+public class OrderOutboxEvent {
+
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+
+    // pooled ids, the events of a batch order are inserted in one JDBC batch
+    @Id
+    @PooledSequence(name = "order_outbox_seq")
+    private Long id;
+
+    private int orderId;
+
+    private String eventType;
+
+    // the order as JSON
+    @Column(length = 2000)
+    private String payload;
+
+    // when the event was written, inside the order transaction : before that transaction commits
+    private Instant createdAt;
+
+    private Instant processedAt;
+
+    // failed publications of this event on its own, see OrderOutboxRelay
+    private int attempts;
+
+    private Instant nextAttemptAt;
+
+    private Instant deadLetteredAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public OrderOutboxEvent(int orderId, String eventType, String payload) {
+        this.orderId = orderId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = Instant.now();
+    }
+}
@@ -1,9 +1,10 @@
 package com.javatechie.entity;
 
+import com.javatechie.config.PooledSequence;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,10 +15,21 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "product_seq")
     private int id;
     private String name;
     private double price;
     private int stockQuantity;
+    // optimistic locking (StockUpdateStrategy.OPTIMISTIC), bulk stock updates bump it as well
+    @Version
+    private long version;
+    // number of InventoryShard rows holding the stock, 0 when the stock is on this row.
+    // Only written by InventoryShardHandler, a saved product never resets it
+    @Column(updatable = false, columnDefinition = "int default 0 not null")
+    private int shardCount;
+
+    public Product(int id, String name, double price, int stockQuantity) {
+        this(id, name, price, stockQuantity, 0, 0);
+    }
 
 }
@@ -0,0 +1,24 @@
+package com.javatechie.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Heartbeat row written to the primary by {@code ReplicaLagMonitor} and read back from the replica,
+ * the difference is the replication lag. Mapped so {@code ddl-auto} creates the table.
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReplicaHeartbeat {
+
+    @Id
+    private int id;
+
+    // epoch millis of the primary clock
+    private long beatAt;
+}
@@ -4,11 +4,15 @@ import com.javatechie.entity.AuditLog;
 import com.javatechie.entity.Order;
 import com.javatechie.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class AuditLogHandler {
@@ -16,15 +20,68 @@ public class AuditLogHandler {
     @Autowired
     private AuditLogRepository auditLogRepository;
 
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Value("${audit.async.enabled:false}")
+    private boolean asyncEnabled;
+
     // Log audit details (runs in an independent transaction)
     //@Transactional(propagation = Propagation.REQUIRES_NEW)
+    // with audit.async.enabled the row is handed to the background writer once the caller commits
     public void logAuditDetails(Order order, String action) {
+        AuditLog auditLog = toAuditLog(order, action);
+        if (asyncEnabled) {
+            afterCommit(() -> auditLogWriter.submit(auditLog));
+            return;
+        }
+
+        // Save the audit log
+        auditLogRepository.save(auditLog);
+    }
+
+    // Log the same action for many orders, through the background writer when enabled
+    public void logAuditDetails(List<Order> orders, String action) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        if (asyncEnabled) {
+            List<AuditLog> auditLogs = orders.stream().map(order -> toAuditLog(order, action)).toList();
+            afterCommit(() -> auditLogWriter.submitAll(auditLogs));
+            return;
+        }
+        saveAuditDetails(orders, action);
+    }
+
+    // Always written in the caller transaction (batched by hibernate.jdbc.batch_size),
+    // for rows that must commit or roll back together with the business data
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void saveAuditDetails(List<Order> orders, String action) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        auditLogRepository.saveAll(orders.stream().map(order -> toAuditLog(order, action)).toList());
+    }
+
+    private static AuditLog toAuditLog(Order order, String action) {
         AuditLog auditLog = new AuditLog();
         auditLog.setOrderId(Long.valueOf(order.getId()));
         auditLog.setAction(action);
         auditLog.setTimestamp(LocalDateTime.now());
+        return auditLog;
+    }
 
-        // Save the audit log
-        auditLogRepository.save(auditLog);
+    // audit rows of a rolled back transaction are never written, same as when saved inline
+    private static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
     }
 }
@@ -0,0 +1,238 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.AuditLog;
+import com.javatechie.repository.AuditLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background writer for audit rows.
+ * <p>
+ * Callers only put the row on a bounded queue. A single writer thread drains it into
+ * batched inserts (pooled ids + {@code hibernate.jdbc.batch_size}), flushing when {@code audit.async.flush-size} rows are
+ * collected or the oldest row waited {@code audit.async.flush-latency-ms}.
+ * When the queue stays full longer than {@code audit.async.enqueue-timeout-ms} the caller
+ * writes the row itself, so a slow database slows producers down instead of losing rows.
+ * A batch that fails is written again row by row, each row retried up to {@code audit.async.max-attempts}
+ * times, so one bad row or a transient error does not lose the rest of the batch.
+ * Everything still queued is written on shutdown.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter {
+
+    private final AuditLogRepository auditLogRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<AuditLog> queue;
+
+    private final int flushSize;
+
+    private final long flushLatencyNanos;
+
+    private final long enqueueTimeoutMillis;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMillis;
+
+    private final Counter enqueued;
+
+    private final Counter overflowed;
+
+    private final Counter written;
+
+    private final Counter failed;
+
+    private final Timer flushTimer;
+
+    private final ThreadFactory workerThreadFactory;
+
+    private final DistributionSummary batchSize;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    public AuditLogWriter(AuditLogRepository auditLogRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          ThreadFactory workerThreadFactory,
+                          @Value("${audit.async.queue-capacity:10000}") int queueCapacity,
+                          @Value("${audit.async.flush-size:500}") int flushSize,
+                          @Value("${audit.async.flush-latency-ms:50}") long flushLatencyMillis,
+                          @Value("${audit.async.enqueue-timeout-ms:20}") long enqueueTimeoutMillis,
+                          @Value("${audit.async.max-attempts:3}") int maxAttempts,
+                          @Value("${audit.async.retry-backoff-ms:100}") long retryBackoffMillis) {
+        this.auditLogRepository = auditLogRepository;
+        // overflow writes run from afterCommit callbacks, never join the finished transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.flushSize = flushSize;
+        this.flushLatencyNanos = TimeUnit.MILLISECONDS.toNanos(flushLatencyMillis);
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.workerThreadFactory = workerThreadFactory;
+
+        Gauge.builder("audit.writer.queue.size", queue, BlockingQueue::size)
+                .description("Audit rows waiting for the background writer")
+                .register(meterRegistry);
+        Gauge.builder("audit.writer.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .register(meterRegistry);
+        this.enqueued = meterRegistry.counter("audit.writer.enqueued");
+        this.overflowed = Counter.builder("audit.writer.overflow")
+                .description("Rows written by the caller because the queue was full (backpressure)")
+                .register(meterRegistry);
+        this.written = meterRegistry.counter("audit.writer.written");
+        this.failed = Counter.builder("audit.writer.failed")
+                .description("Rows given up after audit.async.max-attempts")
+                .register(meterRegistry);
+        this.flushTimer = meterRegistry.timer("audit.writer.flush");
+        this.batchSize = meterRegistry.summary("audit.writer.batch.size");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = workerThreadFactory.newThread(this::drainLoop);
+        writerThread.setName("audit-log-writer");
+        writerThread.start();
+    }
+
+    public void submit(AuditLog auditLog) {
+        boolean queued;
+        try {
+            queued = running && queue.offer(auditLog, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (queued) {
+            enqueued.increment();
+        } else {
+            // queue full or writer stopped : write in the caller thread rather than drop the row
+            overflowed.increment();
+            flush(List.of(auditLog));
+        }
+    }
+
+    public void submitAll(List<AuditLog> auditLogs) {
+        auditLogs.forEach(this::submit);
+    }
+
+    private void drainLoop() {
+        List<AuditLog> batch = new ArrayList<>(flushSize);
+        while (running) {
+            try {
+                AuditLog first = queue.poll(flushLatencyNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // keep collecting until the batch is full or the first row waited long enough
+                long deadline = System.nanoTime() + flushLatencyNanos;
+                while (batch.size() < flushSize) {
+                    queue.drainTo(batch, flushSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= flushSize || remaining <= 0) {
+                        break;
+                    }
+                    AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                log.error("Audit writer failed to flush {} rows", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // whole batch first, row by row with retries if that fails
+    private void flush(List<AuditLog> batch) {
+        try {
+            write(batch);
+            return;
+        } catch (RuntimeException ex) {
+            log.warn("Audit batch of {} rows failed, writing them one by one", batch.size(), ex);
+        }
+        for (AuditLog auditLog : batch) {
+            writeWithRetry(auditLog);
+        }
+    }
+
+    private void writeWithRetry(AuditLog auditLog) {
+        for (int attempt = 1; ; attempt++) {
+            // the id assigned by the failed insert was never committed
+            auditLog.setId(null);
+            try {
+                write(List.of(auditLog));
+                return;
+            } catch (RuntimeException ex) {
+                if (attempt >= maxAttempts) {
+                    failed.increment();
+                    log.error("Audit row '{}' of order {} lost after {} attempts",
+                            auditLog.getAction(), auditLog.getOrderId(), attempt, ex);
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(retryBackoffMillis * attempt);
+            } catch (InterruptedException ex) {
+                // keep retrying without backoff, the row must not be lost on shutdown
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                auditLogRepository.saveAll(batch)));
+        written.increment(batch.size());
+        batchSize.record(batch.size());
+    }
+
+    /**
+     * Stop the writer thread and write whatever is still queued before the datasource goes away.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.NANOSECONDS.toMillis(flushLatencyNanos) + 5000);
+
+        List<AuditLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += flushSize) {
+            flush(remaining.subList(from, Math.min(from + flushSize, remaining.size())));
+        }
+        log.info("Audit writer stopped, flushed {} queued rows on shutdown", remaining.size());
+    }
+}
@@ -0,0 +1,208 @@
+package com.javatechie.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts how often two products were bought by the same customer, one order at a time.
+ * <p>
+ * Each customer keeps a window of the last {@code basketWindow} distinct products they ordered,
+ * a new order adds one to the pair count of its product with every product in that window.
+ * {@link #snapshot(int)} turns the counts into a {@link CoPurchaseSnapshot} of the top-k partners per product.
+ */
+public class CoPurchaseCounter {
+
+    private final int basketWindow;
+
+    // least recently active customers are forgotten first, their past pairs stay counted
+    private final Cache<Integer, Basket> baskets;
+
+    // product -> partner -> times bought by the same customer
+    private final Map<Integer, PartnerCounts> pairCounts = new ConcurrentHashMap<>();
+
+    public CoPurchaseCounter(int basketWindow, long maxCustomers) {
+        this.basketWindow = basketWindow;
+        this.baskets = Caffeine.newBuilder().maximumSize(maxCustomers).build();
+    }
+
+    public void record(int customerId, int productId) {
+        Basket basket = baskets.get(customerId, id -> new Basket(basketWindow));
+        int[] partners;
+        synchronized (basket) {
+            partners = basket.add(productId);
+        }
+        if (partners.length == 0) {
+            return;
+        }
+        PartnerCounts counts = pairCounts.computeIfAbsent(productId, id -> new PartnerCounts());
+        synchronized (counts) {
+            for (int partner : partners) {
+                counts.increment(partner);
+            }
+        }
+        for (int partner : partners) {
+            PartnerCounts partnerCounts = pairCounts.computeIfAbsent(partner, id -> new PartnerCounts());
+            synchronized (partnerCounts) {
+                partnerCounts.increment(productId);
+            }
+        }
+    }
+
+    public CoPurchaseSnapshot snapshot(int topK) {
+        Map<Integer, int[]> recommendations = new HashMap<>(pairCounts.size() * 2);
+        pairCounts.forEach((productId, counts) -> {
+            TopK top = new TopK(topK);
+            synchronized (counts) {
+                counts.forEach(top::offer);
+            }
+            recommendations.put(productId, top.partners());
+        });
+        return new CoPurchaseSnapshot(recommendations);
+    }
+
+    public long pairCount() {
+        long pairs = 0;
+        for (PartnerCounts counts : pairCounts.values()) {
+            synchronized (counts) {
+                pairs += counts.size;
+            }
+        }
+        return pairs;
+    }
+
+    // ring of the last distinct products of one customer
+    private static class Basket {
+
+        private final int[] products;
+
+        private int size;
+
+        private int next;
+
+        private Basket(int window) {
+            this.products = new int[window];
+        }
+
+        // products already in the window, or nothing when this product is in it (no double counting)
+        private int[] add(int productId) {
+            for (int i = 0; i < size; i++) {
+                if (products[i] == productId) {
+                    return new int[0];
+                }
+            }
+            int[] partners = Arrays.copyOf(products, size);
+            products[next] = productId;
+            next = (next + 1) % products.length;
+            size = Math.min(size + 1, products.length);
+            return partners;
+        }
+    }
+
+    // partner -> count, open addressing over primitive arrays, guarded by its own monitor
+    private static class PartnerCounts {
+
+        private static final int FREE = Integer.MIN_VALUE;
+
+        private int[] partners = newKeys(8);
+
+        private int[] counts = new int[8];
+
+        private int size;
+
+        private void increment(int partner) {
+            if ((size + 1) * 2 > partners.length) {
+                grow();
+            }
+            int slot = find(partners, partner);
+            if (partners[slot] == FREE) {
+                partners[slot] = partner;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        private void forEach(PairConsumer consumer) {
+            for (int i = 0; i < partners.length; i++) {
+                if (partners[i] != FREE) {
+                    consumer.accept(counts[i], partners[i]);
+                }
+            }
+        }
+
+        private void grow() {
+            int[] oldPartners = partners;
+            int[] oldCounts = counts;
+            partners = newKeys(oldPartners.length * 2);
+            counts = new int[oldPartners.length * 2];
+            for (int i = 0; i < oldPartners.length; i++) {
+                if (oldPartners[i] != FREE) {
+                    int slot = find(partners, oldPartners[i]);
+                    partners[slot] = oldPartners[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int find(int[] keys, int key) {
+            int mask = keys.length - 1;
+            int h = key * 0x9e3779b9;
+            int slot = (h ^ h >>> 16) & mask;
+            while (keys[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+    }
+
+    private interface PairConsumer {
+        void accept(long count, int partner);
+    }
+
+    // highest counts first, ties broken by the smaller product id so snapshots are stable
+    private static class TopK {
+
+        private final long[] counts;
+
+        private final int[] partners;
+
+        private int size;
+
+        private TopK(int k) {
+            this.counts = new long[k];
+            this.partners = new int[k];
+        }
+
+        private void offer(long count, int partner) {
+            if (size == counts.length && !ranksBefore(count, partner, size - 1)) {
+                return;
+            }
+            int i = size == counts.length ? size - 1 : size++;
+            while (i > 0 && ranksBefore(count, partner, i - 1)) {
+                counts[i] = counts[i - 1];
+                partners[i] = partners[i - 1];
+                i--;
+            }
+            counts[i] = count;
+            partners[i] = partner;
+        }
+
+        private boolean ranksBefore(long count, int partner, int index) {
+            return count > counts[index] || (count == counts[index] && partner < partners[index]);
+        }
+
+        private int[] partners() {
+            return Arrays.copyOf(partners, size);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.javatechie.handler;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Immutable product id -> recommended product ids table, built once and shared by all readers.
+ * <p>
+ * Open addressing over primitive arrays : a lookup is one hash, a few probes and no allocation
+ * or boxing. The returned arrays are shared, callers must not modify them.
+ */
+public final class CoPurchaseSnapshot {
+
+    public static final CoPurchaseSnapshot EMPTY = new CoPurchaseSnapshot(Map.of());
+
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int[] NONE = new int[0];
+
+    private final int[] keys;
+
+    private final int[][] values;
+
+    private final int mask;
+
+    private final int size;
+
+    public CoPurchaseSnapshot(Map<Integer, int[]> recommendations) {
+        // load factor <= 0.5 keeps probe sequences short
+        int capacity = Integer.highestOneBit(Math.max(2, recommendations.size() * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new int[capacity][];
+        this.mask = capacity - 1;
+        this.size = recommendations.size();
+        Arrays.fill(keys, FREE);
+        recommendations.forEach((productId, ids) -> {
+            int slot = slot(productId);
+            while (keys[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = productId;
+            values[slot] = ids;
+        });
+    }
+
+    public int[] recommendations(int productId) {
+        int slot = slot(productId);
+        int key;
+        while ((key = keys[slot]) != FREE) {
+            if (key == productId) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // murmur3 finalizer, sequential ids would otherwise fill neighbouring slots
+    private int slot(int productId) {
+        int h = productId;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+}
@@ -0,0 +1,67 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.OrderOutboxEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends each event as a {@code eventId eventType orderId payload} line, for local testing.
+ * The batch is forced to disk before the relay marks it done.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "file")
+@Slf4j
+public class FileOrderEventSink implements OrderEventSink {
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    public FileOrderEventSink(@Value("${outbox.sink.file.path:order-events.log}") Path path) throws IOException {
+        this.path = path;
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void publish(List<OrderOutboxEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        for (OrderOutboxEvent event : events) {
+            lines.append(event.getId()).append(' ').append(event.getEventType()).append(' ')
+                    .append(event.getOrderId()).append(' ').append(event.getPayload()).append('\n');
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write order events to " + path, ex);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            log.warn("Failed to close order event file {}", path, ex);
+        }
+    }
+}
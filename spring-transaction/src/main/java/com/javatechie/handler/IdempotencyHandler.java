@@ -0,0 +1,173 @@
+package com.javatechie.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.javatechie.entity.Order;
+import com.javatechie.repository.OrderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Places an order at most once per idempotency key.
+ * <p>
+ * The first request of a key registers a future in a bounded cache, concurrent retries wait on it
+ * (at most {@code orders.idempotency.wait-timeout}, then a 409 to retry later,
+ * {@link IdempotencyKeyInProgressException}) and later ones get its result straight from the cache. Keys evicted from the cache are looked up
+ * in the database (unique index on {@code ORDERS.idempotencyKey}), which also rejects the request
+ * when two instances race on the same key. An order stored under its id without a key is not a retry,
+ * the request is rejected as a duplicate id.
+ * <p>
+ * Every order carries a hash of its payload ({@code ORDERS.requestHash}), a key sent again with another
+ * order gets a 422 ({@link IdempotencyKeyReusedException}) instead of the original response.
+ * Failed attempts are not remembered, a retry after a failure places the order again.
+ */
+@Component
+public class IdempotencyHandler {
+
+    private final OrderRepository orderRepository;
+
+    private final Cache<String, CompletableFuture<Order>> results;
+
+    private final Counter replayed;
+
+    private final long waitTimeoutMillis;
+
+    public IdempotencyHandler(OrderRepository orderRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${orders.idempotency.maximum-size:100000}") long maximumSize,
+                              @Value("${orders.idempotency.expire-after-write:1h}") Duration expireAfterWrite,
+                              @Value("${orders.idempotency.wait-timeout:30s}") Duration waitTimeout) {
+        this.orderRepository = orderRepository;
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "orderIdempotency");
+        this.replayed = Counter.builder("orders.idempotency.replayed")
+                .description("Requests answered with the result of an earlier request with the same key")
+                .register(meterRegistry);
+    }
+
+    // Idempotency-Key header, else a key sent with the order, else one derived from the client order id
+    public String keyOf(Order order, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return idempotencyKey;
+        }
+        if (order.getIdempotencyKey() != null && !order.getIdempotencyKey().isBlank()) {
+            return order.getIdempotencyKey();
+        }
+        return "order-" + order.getId();
+    }
+
+    // key and payload hash, stored with the order so later retries can be checked against it
+    public void stamp(Order order, String idempotencyKey) {
+        order.setIdempotencyKey(keyOf(order, idempotencyKey));
+        order.setRequestHash(requestHash(order));
+    }
+
+    // what the client sent, the total price is computed by the service
+    static String requestHash(Order order) {
+        String payload = order.getId() + "|" + order.getProductId() + "|" + order.getQuantity() + "|" + order.getCustomerId();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * @param placement places the order, only called when no earlier request with the same key succeeded
+     * @return the order placed by this request or by the first one with the same key
+     */
+    public Order placeOnce(Order order, String idempotencyKey, Supplier<Order> placement) {
+        stamp(order, idempotencyKey);
+        String key = order.getIdempotencyKey();
+
+        CompletableFuture<Order> placing = new CompletableFuture<>();
+        CompletableFuture<Order> original = results.asMap().putIfAbsent(key, placing);
+        if (original != null) {
+            replayed.increment();
+            return sameOrder(order, awaitResult(key, original));
+        }
+
+        try {
+            Optional<Order> stored = findStored(order, key);
+            if (stored.isPresent()) {
+                replayed.increment();
+            }
+            Order result = stored.orElseGet(placement);
+            if (result == null) {
+                // nothing stored, keep the key free for a retry
+                results.asMap().remove(key, placing);
+            }
+            placing.complete(result);
+            return sameOrder(order, result);
+        } catch (RuntimeException ex) {
+            results.asMap().remove(key, placing);
+            placing.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private Optional<Order> findStored(Order order, String key) {
+        Optional<Order> byKey = orderRepository.findByIdempotencyKey(key);
+        if (byKey.isPresent()) {
+            return byKey;
+        }
+        if (orderRepository.existsById(order.getId())) {
+            // same id under another key, or a row stored before idempotency keys existed : not a retry
+            throw new RuntimeException("Order already exists with id : " + order.getId());
+        }
+        return Optional.empty();
+    }
+
+    private Order awaitResult(String key, CompletableFuture<Order> original) {
+        try {
+            return original.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            // the first request may still hang on a lock or the group commit queue, don't hold this thread for it
+            throw new IdempotencyKeyInProgressException("Order with idempotency key " + key
+                    + " is still being placed, retry later");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted waiting for idempotency key " + key);
+        }
+    }
+
+    private static Order sameOrder(Order order, Order result) {
+        if (result == null) {
+            return null;
+        }
+        // orders stored before payload hashes existed are only checked on their id
+        if (result.getId() != order.getId()
+                || (result.getRequestHash() != null && !Objects.equals(result.getRequestHash(), order.getRequestHash()))) {
+            throw new IdempotencyKeyReusedException("Idempotency key " + order.getIdempotencyKey()
+                    + " already used for another request (order " + result.getId() + ")");
+        }
+        return result;
+    }
+}
@@ -0,0 +1,15 @@
+package com.javatechie.handler;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The first request with this idempotency key is still being placed, the client can retry the same request later.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,32 @@
 package com.javatechie.handler;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.javatechie.dto.ProductDetails;
 import com.javatechie.entity.Product;
 import com.javatechie.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class InventoryHandler {
@@ -12,8 +34,36 @@ public class InventoryHandler {
 
     private final InventoryRepository inventoryRepository;
 
-    public InventoryHandler(InventoryRepository inventoryRepository) {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final InventoryShardHandler shardHandler;
+
+    // read-through cache of name and price (W-TinyLFU eviction), never of stock
+    private final Cache<Integer, ProductDetails> productDetailsCache;
+
+    // cache misses load like getProduct, which the loader cannot call through the proxy
+    private final TransactionTemplate readOnlyTemplate;
+
+    public InventoryHandler(InventoryRepository inventoryRepository,
+                            JdbcTemplate jdbcTemplate,
+                            InventoryShardHandler shardHandler,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${inventory.product-cache.maximum-size:10000}") long maximumSize,
+                            @Value("${inventory.product-cache.expire-after-write:10m}") Duration expireAfterWrite) {
         this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardHandler = shardHandler;
+        this.productDetailsCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // hit / miss / eviction counters : cache.gets, cache.evictions, cache.size with cache=productDetails
+        CaffeineCacheMetrics.monitor(meterRegistry, productDetailsCache, "productDetails");
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setName("InventoryHandler.getProductDetails");
+        this.readOnlyTemplate.setReadOnly(true);
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
@@ -23,14 +73,144 @@ public class InventoryHandler {
         if(product.getPrice() > 5000){
             throw new RuntimeException("DB crashed.....");
         }
-        return inventoryRepository.save(product);
+        Product savedProduct = inventoryRepository.save(product);
+        evictProductDetails(product.getId());
+        return savedProduct;
     }
 
 
+    // joins the order transaction on the primary, on its own it may read from the replica
+    @Transactional(readOnly = true)
     public Product getProduct(int id) {
         return inventoryRepository.findById(id)
                 .orElseThrow(
                         () -> new RuntimeException("Product not available with id : " + id)
                 );
     }
+
+    /**
+     * Name and price of a product, served from the cache once loaded.
+     * Use {@link #getProduct(int)} when the stock is needed.
+     */
+    public ProductDetails getProductDetails(int id) {
+        // a self call would skip @Transactional(readOnly = true) on getProduct and never reach the replica
+        return productDetailsCache.get(id, productId -> readOnlyTemplate.execute(status -> ProductDetails.of(getProduct(productId))));
+    }
+
+    // evict right away and again once the transaction commits,
+    // so a concurrent read cannot put the old values back for the rest of the expiry
+    private void evictProductDetails(int productId) {
+        productDetailsCache.invalidate(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    productDetailsCache.invalidate(productId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reserve stock with a single conditional UPDATE instead of read-modify-write.
+     * The database checks and decrements in one statement, so concurrent orders
+     * can neither lose an update nor oversell the product. Sharded products update one of their shards.
+     *
+     * @return true if the stock was reserved, false if not enough stock was left
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public boolean reserveStock(int productId, int quantity) {
+        if (shardHandler.seenSharded(productId)) {
+            int shards = shardHandler.shardCount(productId);
+            if (shards > 0) {
+                return shardHandler.reserveStock(productId, shards, quantity);
+            }
+        }
+        if (inventoryRepository.reserveStock(productId, quantity) == 1) {
+            return true;
+        }
+        return reserveFromShardsIfSharded(productId, quantity);
+    }
+
+    // stock of the Product row plus its shards
+    public int availableStock(Product product) {
+        return product.getShardCount() > 0
+                ? product.getStockQuantity() + shardHandler.totalStock(product.getId())
+                : product.getStockQuantity();
+    }
+
+    // the Product row update found no stock : sold out, or sharded (by another instance) and its stock moved
+    // to the shards. A plain read of the count, no lock on the Product row for a sold out product
+    private boolean reserveFromShardsIfSharded(int productId, int quantity) {
+        int shards = shardHandler.shardCount(productId);
+        return shards > 0 && shardHandler.reserveStock(productId, shards, quantity);
+    }
+
+    // load every product of a batch with one query, keyed by product id
+    public Map<Integer, Product> getProducts(Collection<Integer> ids) {
+        return inventoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    /**
+     * Decrement the stock of several products with a single JDBC batch.
+     * Every row is only updated when it still holds enough stock, so a concurrent
+     * order can never drive the stock negative.
+     *
+     * @param quantities quantity to take away, keyed by product id
+     * @return ids of the products whose stock could not be reserved
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public Set<Integer> decrementStock(Map<Integer, Integer> quantities) {
+        Set<Integer> failed = new HashSet<>();
+        // sharded products take the quantity of their whole group from the shards, the others start with the Product row
+        Set<Integer> seenSharded = quantities.keySet().stream()
+                .filter(shardHandler::seenSharded)
+                .collect(Collectors.toSet());
+        Map<Integer, Integer> shardCounts = seenSharded.isEmpty() ? Map.of() : shardHandler.shardCounts(seenSharded);
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(quantities.size());
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Integer shards = shardCounts.get(entry.getKey());
+            if (shards == null) {
+                entries.add(entry);
+            } else if (!shardHandler.reserveStock(entry.getKey(), shards, entry.getValue())) {
+                failed.add(entry.getKey());
+            }
+        }
+        if (entries.isEmpty()) {
+            return failed;
+        }
+        int[][] updateCounts = jdbcTemplate.batchUpdate(
+                "UPDATE Product SET stockQuantity = stockQuantity - ?, version = version + 1 " +
+                        "WHERE id = ? AND stockQuantity >= ?",
+                entries, entries.size(),
+                (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setInt(2, entry.getKey());
+                    ps.setInt(3, entry.getValue());
+                });
+
+        Map<Integer, Integer> noStock = new HashMap<>();
+        int index = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                // 0 rows means the stock was drained meanwhile, or the product is sharded (negative values are "success, no info")
+                if (count == 0) {
+                    noStock.put(entries.get(index).getKey(), entries.get(index).getValue());
+                }
+                index++;
+            }
+        }
+        if (noStock.isEmpty()) {
+            return failed;
+        }
+        Map<Integer, Integer> shardedMeanwhile = shardHandler.shardCounts(noStock.keySet());
+        noStock.forEach((productId, quantity) -> {
+            Integer shards = shardedMeanwhile.get(productId);
+            if (shards == null || !shardHandler.reserveStock(productId, shards, quantity)) {
+                failed.add(productId);
+            }
+        });
+        return failed;
+    }
 }
@@ -0,0 +1,318 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.InventoryShard;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.InventoryShardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stock of hot products split over N {@link InventoryShard} rows, so concurrent orders on one
+ * product update different rows instead of queueing on the {@code Product} row lock.
+ * <p>
+ * An order takes its quantity from one shard, picked at random or round-robin
+ * ({@code inventory.sharding.selection}). When that shard ran dry another shard with enough stock
+ * is used and the shards are rebalanced in the background after commit. When no single shard holds the quantity
+ * any more, all shards are locked and the quantity is taken from their total. Close to sell-out two
+ * such orders can deadlock (a failed conditional update keeps its row lock), the victim fails like
+ * on any lock failure.
+ * <p>
+ * Whether a product is sharded is {@code Product.shardCount}, read in the order transaction, so every
+ * instance sees a product sharded or unsharded by another one as soon as that commits. Each instance
+ * also remembers the products it found sharded : their orders read the count and go to the shards,
+ * the others first try the {@code Product} row, which {@link #shard(int, int)} left empty.
+ * <p>
+ * Not combined with the stock reservation ledger, which only knows the {@code Product} row.
+ */
+@Service
+@Slf4j
+public class InventoryShardHandler {
+
+    private final InventoryShardRepository shardRepository;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ShardSelection selection;
+
+    private final boolean ledgerEnabled;
+
+    // rebalancing after commit, never joins the finished order transaction
+    private final TransactionTemplate rebalanceTemplate;
+
+    // the order thread still holds its connection in afterCommit, rebalancing there could drain the pool
+    private final ExecutorService rebalancer;
+
+    private final Map<Integer, AtomicInteger> nextShard = new ConcurrentHashMap<>();
+
+    private final Set<Integer> rebalancing = ConcurrentHashMap.newKeySet();
+
+    // products last seen sharded by this instance, only decides which row an order tries first
+    private final Set<Integer> seenSharded = ConcurrentHashMap.newKeySet();
+
+    private final Counter misses;
+
+    private final Counter rebalances;
+
+    public InventoryShardHandler(InventoryShardRepository shardRepository,
+                                 InventoryRepository inventoryRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 ThreadFactory workerThreadFactory,
+                                 @Value("${inventory.sharding.selection:RANDOM}") ShardSelection selection,
+                                 @Value("${inventory.ledger.enabled:false}") boolean ledgerEnabled) {
+        this.shardRepository = shardRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.selection = selection;
+        this.ledgerEnabled = ledgerEnabled;
+        this.rebalanceTemplate = new TransactionTemplate(transactionManager);
+        this.rebalanceTemplate.setName("InventoryShardHandler.rebalance");
+        this.rebalanceTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebalancer = Executors.newSingleThreadExecutor(workerThreadFactory);
+        this.misses = Counter.builder("inventory.shard.misses")
+                .description("Orders whose first shard could not cover the quantity")
+                .register(meterRegistry);
+        this.rebalances = meterRegistry.counter("inventory.shard.rebalances");
+    }
+
+    public boolean isSharded(int productId) {
+        return shardCount(productId) > 0;
+    }
+
+    // orders on these skip the Product row, whose failed update would queue them on its lock
+    public boolean seenSharded(int productId) {
+        return seenSharded.contains(productId);
+    }
+
+    // Product.shardCount with a plain read, 0 for an unsharded or unknown product
+    public int shardCount(int productId) {
+        int shards = inventoryRepository.findShardCount(productId).orElse(0);
+        remember(productId, shards);
+        return shards;
+    }
+
+    // shard count of the sharded products among productIds, with one query
+    public Map<Integer, Integer> shardCounts(Collection<Integer> productIds) {
+        Map<Integer, Integer> shardCounts = new HashMap<>();
+        for (Object[] row : inventoryRepository.findShardCounts(productIds)) {
+            shardCounts.put((Integer) row[0], (Integer) row[1]);
+        }
+        for (Integer productId : productIds) {
+            remember(productId, shardCounts.getOrDefault(productId, 0));
+        }
+        return shardCounts;
+    }
+
+    private void remember(int productId, int shards) {
+        if (shards > 0) {
+            seenSharded.add(productId);
+        } else {
+            seenSharded.remove(productId);
+        }
+    }
+
+    /**
+     * Move the stock of a product (including any current shards) into {@code shards} shard rows,
+     * fewer than 2 shards moves it back to the {@code Product} row.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void shard(int productId, int shards) {
+        if (shards < 2) {
+            unshard(productId);
+            return;
+        }
+        if (ledgerEnabled) {
+            throw new IllegalStateException("Inventory sharding is not supported with inventory.ledger.enabled");
+        }
+        Product product = lockProduct(productId);
+        int stock = product.getStockQuantity() + lockShards(productId).stream().mapToInt(Integer::intValue).sum();
+        shardRepository.deleteByProductId(productId);
+        product.setStockQuantity(0);
+        List<InventoryShard> rows = new ArrayList<>(shards);
+        for (int shardNo = 0; shardNo < shards; shardNo++) {
+            rows.add(new InventoryShard(productId, shardNo, shareOf(stock, shards, shardNo)));
+        }
+        shardRepository.saveAll(rows);
+        inventoryRepository.updateShardCount(productId, shards);
+        remember(productId, shards);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void unshard(int productId) {
+        Product product = lockProduct(productId);
+        int stock = lockShards(productId).stream().mapToInt(Integer::intValue).sum();
+        shardRepository.deleteByProductId(productId);
+        product.setStockQuantity(product.getStockQuantity() + stock);
+        inventoryRepository.updateShardCount(productId, 0);
+        remember(productId, 0);
+    }
+
+    /**
+     * Joins the order transaction of the caller, like {@link InventoryHandler#reserveStock(int, int)}.
+     *
+     * @param shards {@code Product.shardCount} as read in this transaction
+     * @return false if the shards together do not hold enough stock
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public boolean reserveStock(int productId, int shards, int quantity) {
+        int first = firstShard(productId, shards);
+        if (tryReserve(productId, first, quantity)) {
+            return true;
+        }
+        misses.increment();
+
+        // the chosen shard ran dry : take the quantity from another one and refill it after commit.
+        // [shardNo, stock] of the rows actually there, the shards may have changed since shardCount was read
+        List<int[]> stocks = jdbcTemplate.query(
+                "SELECT shardNo, stockQuantity FROM InventoryShard WHERE productId = ? ORDER BY shardNo",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, productId);
+        // next shards after the first one, wrapping around
+        int start = (int) stocks.stream().filter(shard -> shard[0] <= first).count();
+        for (int i = 0; i < stocks.size(); i++) {
+            int[] shard = stocks.get((start + i) % stocks.size());
+            if (shard[0] != first && shard[1] >= quantity && tryReserve(productId, shard[0], quantity)) {
+                rebalanceAfterCommit(productId);
+                return true;
+            }
+        }
+
+        // no single shard holds the quantity any more, gather it from all of them
+        List<Integer> locked = lockShards(productId);
+        int total = locked.stream().mapToInt(Integer::intValue).sum();
+        if (total < quantity) {
+            return false;
+        }
+        redistribute(productId, total - quantity, locked.size());
+        return true;
+    }
+
+    // stock of all shards, 0 for an unsharded product
+    public int totalStock(int productId) {
+        Integer total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(stockQuantity), 0) FROM InventoryShard WHERE productId = ?", Integer.class, productId);
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Spread the stock of a product evenly over its shards, in a transaction of its own.
+     */
+    public void rebalance(int productId) {
+        // misses keep coming while a rebalance runs, one per product is enough
+        if (!isSharded(productId) || !rebalancing.add(productId)) {
+            return;
+        }
+        try {
+            rebalanceTemplate.executeWithoutResult(status -> {
+                List<Integer> locked = lockShards(productId);
+                redistribute(productId, locked.stream().mapToInt(Integer::intValue).sum(), locked.size());
+            });
+        } finally {
+            rebalancing.remove(productId);
+        }
+    }
+
+    private boolean tryReserve(int productId, int shardNo, int quantity) {
+        return jdbcTemplate.update(
+                "UPDATE InventoryShard SET stockQuantity = stockQuantity - ?, version = version + 1 " +
+                        "WHERE productId = ? AND shardNo = ? AND stockQuantity >= ?",
+                quantity, productId, shardNo, quantity) == 1;
+    }
+
+    private int firstShard(int productId, int shards) {
+        if (selection == ShardSelection.ROUND_ROBIN) {
+            return Math.floorMod(nextShard.computeIfAbsent(productId, id -> new AtomicInteger()).getAndIncrement(), shards);
+        }
+        return ThreadLocalRandom.current().nextInt(shards);
+    }
+
+    // stock of every shard in shard order, locked until the transaction ends
+    private List<Integer> lockShards(int productId) {
+        return jdbcTemplate.queryForList(
+                "SELECT stockQuantity FROM InventoryShard WHERE productId = ? ORDER BY shardNo FOR UPDATE",
+                Integer.class, productId);
+    }
+
+    private void redistribute(int productId, int stock, int shards) {
+        List<Object[]> rows = new ArrayList<>(shards);
+        for (int shardNo = 0; shardNo < shards; shardNo++) {
+            rows.add(new Object[]{shareOf(stock, shards, shardNo), productId, shardNo});
+        }
+        jdbcTemplate.batchUpdate(
+                "UPDATE InventoryShard SET stockQuantity = ?, version = version + 1 WHERE productId = ? AND shardNo = ?", rows);
+        rebalances.increment();
+    }
+
+    private void rebalanceAfterCommit(int productId) {
+        afterCommit(() -> {
+            try {
+                rebalancer.execute(() -> {
+                    try {
+                        rebalance(productId);
+                    } catch (RuntimeException ex) {
+                        // the next miss tries again
+                        log.warn("Failed to rebalance the inventory shards of product {}", productId, ex);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                log.debug("Shutting down, rebalance of product {} skipped", productId);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebalancer.shutdown();
+    }
+
+    private Product lockProduct(int productId) {
+        return inventoryRepository.findByIdForUpdate(productId)
+                .orElseThrow(() -> new RuntimeException("Product not available with id : " + productId));
+    }
+
+    private static int shareOf(int stock, int shards, int shardNo) {
+        return stock / shards + (shardNo < stock % shards ? 1 : 0);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
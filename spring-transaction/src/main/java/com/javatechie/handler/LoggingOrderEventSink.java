@@ -0,0 +1,20 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.OrderOutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// in-process stub until a broker is wired in
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+@Slf4j
+public class LoggingOrderEventSink implements OrderEventSink {
+
+    @Override
+    public void publish(List<OrderOutboxEvent> events) {
+        events.forEach(event -> log.debug("{} order {} : {}", event.getEventType(), event.getOrderId(), event.getPayload()));
+    }
+}
@@ -0,0 +1,12 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.Order;
+
+/**
+ * Sends the order confirmation to the customer (email, sms ...).
+ * Throwing means the notification was not delivered, the dispatcher retries it.
+ */
+public interface NotificationGateway {
+
+    void sendOrderConfirmation(Order order);
+}
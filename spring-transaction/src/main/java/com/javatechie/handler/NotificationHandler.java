@@ -6,11 +6,16 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class NotificationHandler {
+public class NotificationHandler implements NotificationGateway {
 
     @Transactional(propagation = Propagation.NEVER)
     public void sendOrderConfirmationNotification(Order order) {
         // Send an email notification to the customer
         System.out.println( order.getId()+" Order placed successfully");
     }
+
+    @Override
+    public void sendOrderConfirmation(Order order) {
+        sendOrderConfirmationNotification(order);
+    }
 }
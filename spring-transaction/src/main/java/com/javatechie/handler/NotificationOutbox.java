@@ -0,0 +1,256 @@
+package com.javatechie.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatechie.entity.Order;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local append-only file of notifications not delivered yet, one JSON line per record.
+ * <p>
+ * A {@code PENDING} line is written after the order committed and a {@code DONE} line once the gateway
+ * accepted it, so pending notifications survive a restart once their line was synced. A line not synced
+ * yet is lost with a crash, and so is that notification.
+ * <p>
+ * Appends do not force the file themselves. {@link #sync()} forces everything written so far with one
+ * {@code fsync}, shared by all lines appended meanwhile (group commit) : senders call it before
+ * sending, so a notification is never sent before its {@code PENDING} line is on disk, and it runs
+ * every {@code notification.outbox.sync-interval-ms}, which bounds what a crash can lose.
+ * A lost {@code DONE} line only means the notification is sent once more.
+ * The file is rewritten with only the pending records once {@code notification.outbox.compact-after}
+ * notifications were delivered.
+ */
+@Component
+@Slf4j
+public class NotificationOutbox {
+
+    static final String PENDING = "PENDING";
+    static final String DONE = "DONE";
+
+    private final Path path;
+
+    private final ObjectMapper objectMapper;
+
+    private final int compactAfter;
+
+    private final Map<Integer, Order> pending = new LinkedHashMap<>();
+
+    private FileChannel channel;
+
+    private int doneSinceCompaction;
+
+    // lines written, guarded by this
+    private long written;
+
+    // serializes fsync and compaction, taken before this
+    private final Object syncLock = new Object();
+
+    // lines known to be on disk, guarded by syncLock
+    private long synced;
+
+    private long forces;
+
+    public NotificationOutbox(@Value("${notification.outbox.path:notification-outbox.log}") Path path,
+                              @Value("${notification.outbox.compact-after:1000}") int compactAfter,
+                              ObjectMapper objectMapper) {
+        this.path = path;
+        this.compactAfter = compactAfter;
+        this.objectMapper = objectMapper;
+        load();
+    }
+
+    // on the committing thread after its commit, durable only once sync() returned
+    public synchronized void append(Order order) {
+        if (pending.putIfAbsent(order.getId(), order) == null) {
+            write(new OutboxRecord(PENDING, order.getId(), order));
+        }
+    }
+
+    public void markDone(int orderId) {
+        synchronized (this) {
+            if (pending.remove(orderId) == null) {
+                return;
+            }
+            write(new OutboxRecord(DONE, orderId, null));
+            if (++doneSinceCompaction < compactAfter) {
+                return;
+            }
+        }
+        compact();
+    }
+
+    /**
+     * Force every line written so far to disk. Callers arriving while another one forces
+     * wait for it and usually find their lines already covered.
+     */
+    @Scheduled(fixedDelayString = "${notification.outbox.sync-interval-ms:20}")
+    public void sync() {
+        synchronized (syncLock) {
+            FileChannel current;
+            long upTo;
+            synchronized (this) {
+                current = channel;
+                upTo = written;
+            }
+            if (synced >= upTo) {
+                return;
+            }
+            try {
+                // appends go on meanwhile, only this lock is held
+                current.force(false);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Cannot sync notification outbox " + path, ex);
+            }
+            synced = upTo;
+            forces++;
+        }
+    }
+
+    long forces() {
+        synchronized (syncLock) {
+            return forces;
+        }
+    }
+
+    public synchronized List<Order> pending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (syncLock) {
+            try {
+                sync();
+            } catch (UncheckedIOException ex) {
+                log.warn("Failed to sync notification outbox {}", path, ex);
+            }
+            synchronized (this) {
+                try {
+                    channel.close();
+                } catch (IOException ex) {
+                    log.warn("Failed to close notification outbox {}", path, ex);
+                }
+            }
+        }
+    }
+
+    private void load() {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            if (Files.exists(path)) {
+                for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    OutboxRecord record;
+                    try {
+                        record = objectMapper.readValue(line, OutboxRecord.class);
+                    } catch (JsonProcessingException ex) {
+                        // torn last line of a crash, the record was never acknowledged
+                        log.warn("Skipping unreadable notification outbox line : {}", line);
+                        continue;
+                    }
+                    if (PENDING.equals(record.state())) {
+                        pending.put(record.orderId(), record.order());
+                    } else {
+                        pending.remove(record.orderId());
+                    }
+                }
+            }
+            channel = open();
+            if (!pending.isEmpty()) {
+                log.info("Notification outbox {} holds {} undelivered notifications", path, pending.size());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot open notification outbox " + path, ex);
+        }
+    }
+
+    private void write(OutboxRecord record) {
+        try {
+            byte[] line = (objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            written++;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot write notification outbox " + path, ex);
+        }
+    }
+
+    // write the pending records to a new file and swap it in, the old file stays valid until the move.
+    // Holds syncLock so no fsync runs on the channel being replaced
+    private void compact() {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (doneSinceCompaction < compactAfter) {
+                    return;
+                }
+                Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+                try {
+                    List<String> lines = new ArrayList<>();
+                    for (Order order : pending.values()) {
+                        lines.add(objectMapper.writeValueAsString(new OutboxRecord(PENDING, order.getId(), order)));
+                    }
+                    Files.write(compacted, lines, StandardCharsets.UTF_8);
+                    try (FileChannel file = FileChannel.open(compacted, StandardOpenOption.WRITE)) {
+                        file.force(true);
+                    }
+                    channel.close();
+                    Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    doneSinceCompaction = 0;
+                    // every pending record is in the forced file
+                    synced = written;
+                } catch (IOException ex) {
+                    // the old file is still complete, keep appending to it
+                    log.warn("Failed to compact notification outbox {}", path, ex);
+                } finally {
+                    reopenIfClosed();
+                }
+            }
+        }
+    }
+
+    private void reopenIfClosed() {
+        if (channel.isOpen()) {
+            return;
+        }
+        try {
+            channel = open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot reopen notification outbox " + path, ex);
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    record OutboxRecord(String state, int orderId, Order order) {
+    }
+}
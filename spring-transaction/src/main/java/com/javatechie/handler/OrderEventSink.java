@@ -0,0 +1,18 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.OrderOutboxEvent;
+
+import java.util.List;
+
+/**
+ * Where {@code OrderOutboxRelay} publishes order events, chosen with {@code outbox.sink} (log or file).
+ * <p>
+ * Throw to reject events. A rejected batch is published again one event at a time, each event that still
+ * fails is retried on its own after a backoff and dead-lettered after {@code outbox.relay.max-attempts},
+ * while the others are marked done. Events may therefore arrive more than once (at least once delivery),
+ * and a single bad event never holds back the rest.
+ */
+public interface OrderEventSink {
+
+    void publish(List<OrderOutboxEvent> events);
+}
@@ -2,21 +2,70 @@ package com.javatechie.handler;
 
 import com.javatechie.entity.Order;
 import com.javatechie.repository.OrderRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 public class OrderHandler {
 
     private final OrderRepository orderRepository;
 
-    public OrderHandler(OrderRepository orderRepository) {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final OrderOutboxHandler outboxHandler;
+
+    public OrderHandler(OrderRepository orderRepository, JdbcTemplate jdbcTemplate, OrderOutboxHandler outboxHandler) {
         this.orderRepository = orderRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxHandler = outboxHandler;
     }
 
+    // the outbox event is written in the same transaction, OrderOutboxRelay publishes it
     @Transactional(propagation = Propagation.REQUIRED)
     public Order saveOrder(Order order){
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        outboxHandler.orderPlaced(saved);
+        return saved;
+    }
+
+    // insert all orders with a single JDBC batch instead of a merge (select + insert) per order
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void saveOrders(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO ORDERS (id, productId, quantity, totalPrice, customerId, idempotencyKey, requestHash) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                orders, orders.size(),
+                (ps, order) -> {
+                    ps.setInt(1, order.getId());
+                    ps.setInt(2, order.getProductId());
+                    ps.setInt(3, order.getQuantity());
+                    ps.setDouble(4, order.getTotalPrice());
+                    ps.setObject(5, order.getCustomerId(), Types.INTEGER);
+                    ps.setString(6, order.getIdempotencyKey());
+                    ps.setString(7, order.getRequestHash());
+                });
+        outboxHandler.ordersPlaced(orders);
+    }
+
+    public Set<Integer> findExistingOrderIds(Collection<Integer> ids) {
+        return orderRepository.findAllById(ids).stream()
+                .map(Order::getId)
+                .collect(Collectors.toSet());
+    }
+
+    public Set<String> findExistingIdempotencyKeys(Collection<String> idempotencyKeys) {
+        return orderRepository.findAllByIdempotencyKeyIn(idempotencyKeys).stream()
+                .map(Order::getIdempotencyKey)
+                .collect(Collectors.toSet());
     }
 }
@@ -0,0 +1,44 @@
+package com.javatechie.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatechie.entity.Order;
+import com.javatechie.entity.OrderOutboxEvent;
+import com.javatechie.repository.OrderOutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+public class OrderOutboxHandler {
+
+    private final OrderOutboxRepository outboxRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OrderOutboxHandler(OrderOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // MANDATORY : the event commits or rolls back together with the order
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void orderPlaced(Order order) {
+        outboxRepository.save(toEvent(order));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ordersPlaced(List<Order> orders) {
+        outboxRepository.saveAll(orders.stream().map(this::toEvent).toList());
+    }
+
+    private OrderOutboxEvent toEvent(Order order) {
+        try {
+            return new OrderOutboxEvent(order.getId(), OrderOutboxEvent.ORDER_PLACED, objectMapper.writeValueAsString(order));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize order " + order.getId(), ex);
+        }
+    }
+}
@@ -1,20 +1,16 @@
 package com.javatechie.handler;
 
-import com.javatechie.entity.AuditLog;
 import com.javatechie.entity.Order;
-import com.javatechie.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-
 @Service
 public class PaymentValidatorHandler {
 
     @Autowired
-    private AuditLogRepository auditLogRepository;
+    private AuditLogHandler auditLogHandler;
 
   @Transactional(propagation = Propagation.NESTED)
     public void validatePayment(Order order) {
@@ -23,18 +19,28 @@ public class PaymentValidatorHandler {
 
         // If payment is unsuccessful, we log the payment failure in the mandatory transaction
         if (!paymentSuccessful) {
-            AuditLog paymentFailureLog = new AuditLog();
-            paymentFailureLog.setOrderId(Long.valueOf(order.getId()));
-            paymentFailureLog.setAction("Payment Failed for Order");
-            paymentFailureLog.setTimestamp(LocalDateTime.now());
-
-            if(order.getTotalPrice()>1000){
-                throw new RuntimeException("Error in payment validator");
-            }
-            // Save the payment failure log
-            auditLogRepository.save(paymentFailureLog);
+            checkPayment(order);
+            // Save the payment failure log, through the audit pipeline
+            auditLogHandler.logAuditDetails(order, "Payment Failed for Order");
         }
         
     }
 
+    // savepoint-free mode : called before the order transaction opens, runs without a transaction
+    // of its own. Only a rejected order is audited, accepted orders leave no payment row
+    public void validatePaymentBeforeTransaction(Order order) {
+        try {
+            checkPayment(order);
+        } catch (RuntimeException ex) {
+            auditLogHandler.logAuditDetails(order, "payment validation failed");
+            throw ex;
+        }
+    }
+
+    private void checkPayment(Order order) {
+        if(order.getTotalPrice()>1000){
+            throw new RuntimeException("Error in payment validator");
+        }
+    }
+
 }
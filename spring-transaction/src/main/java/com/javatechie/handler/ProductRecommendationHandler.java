@@ -1,27 +1,134 @@
 package com.javatechie.handler;
 
+import com.javatechie.dto.OrderPlacedEvent;
+import com.javatechie.dto.ProductDetails;
+import com.javatechie.entity.Order;
 import com.javatechie.entity.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Co-purchase recommendations ("customers who bought this also bought").
+ * <p>
+ * Committed orders update a {@link CoPurchaseCounter} incrementally, every
+ * {@code recommendation.rebuild-interval-ms} the counts are turned into a new
+ * {@link CoPurchaseSnapshot} and swapped in atomically. Lookups only read the current
+ * snapshot, they never wait for a rebuild. On startup the counts are rebuilt from the ORDERS table.
+ */
 @Service
+@Slf4j
 public class ProductRecommendationHandler {
 
+    private static final List<Product> DEFAULT_RECOMMENDATIONS = List.of(
+            new Product(101, "Wireless Headphones", 99.99, 50),
+            new Product(102, "Smartphone Case", 19.99, 200),
+            new Product(103, "Bluetooth Speaker", 49.99, 75),
+            new Product(104, "Gaming Mouse", 59.99, 100));
+
+    private final InventoryHandler inventoryHandler;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int topK;
+
+    private final CoPurchaseCounter counter;
+
+    private final AtomicReference<CoPurchaseSnapshot> snapshot = new AtomicReference<>(CoPurchaseSnapshot.EMPTY);
+
+    private final Timer rebuildTimer;
+
+    public ProductRecommendationHandler(InventoryHandler inventoryHandler,
+                                        JdbcTemplate jdbcTemplate,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${recommendation.top-k:10}") int topK,
+                                        @Value("${recommendation.basket-window:20}") int basketWindow,
+                                        @Value("${recommendation.max-customers:100000}") long maxCustomers) {
+        this.inventoryHandler = inventoryHandler;
+        this.jdbcTemplate = jdbcTemplate;
+        this.topK = topK;
+        this.counter = new CoPurchaseCounter(basketWindow, maxCustomers);
+        this.rebuildTimer = meterRegistry.timer("recommendation.snapshot.rebuild");
+        Gauge.builder("recommendation.snapshot.products", snapshot, s -> s.get().size())
+                .register(meterRegistry);
+    }
+
     // Fetch product recommendations (NOT_SUPPORTED)
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Product> getRecommendations() {
-        // Simulate hardcoded product recommendations
-        List<Product> recommendations = new ArrayList<>();
+        // Simulate hardcoded product recommendations, shared immutable list
+        System.out.println("Recommendations fetched for customer ");
+        return DEFAULT_RECOMMENDATIONS;
+    }
 
-        recommendations.add(new Product(101, "Wireless Headphones", 99.99, 50));
-        recommendations.add(new Product(102, "Smartphone Case", 19.99, 200));
-        recommendations.add(new Product(103, "Bluetooth Speaker", 49.99, 75));
-        recommendations.add(new Product(104, "Gaming Mouse", 59.99, 100));
+    // O(1) lookup in the current snapshot, the array is shared and must not be modified
+    public int[] getRecommendedProductIds(int productId) {
+        return snapshot.get().recommendations(productId);
+    }
 
-        System.out.println("Recommendations fetched for customer ");
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ProductDetails> getRecommendations(int productId) {
+        int[] productIds = getRecommendedProductIds(productId);
+        List<ProductDetails> recommendations = new ArrayList<>(productIds.length);
+        for (int id : productIds) {
+            try {
+                recommendations.add(inventoryHandler.getProductDetails(id));
+            } catch (RuntimeException ex) {
+                // product deleted since the last rebuild
+                log.debug("Skipping recommended product {} : {}", id, ex.getMessage());
+            }
+        }
         return recommendations;
     }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Order order = event.order();
+        if (order.getCustomerId() != null) {
+            counter.record(order.getCustomerId(), order.getProductId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${recommendation.rebuild-interval-ms:60000}",
+            fixedDelayString = "${recommendation.rebuild-interval-ms:60000}")
+    public void rebuildSnapshot() {
+        snapshot.set(rebuildTimer.record(() -> counter.snapshot(topK)));
+    }
+
+    /**
+     * Count the co-purchases of every stored order, then publish the first snapshot.
+     * Orders committed while this runs may be counted twice, which only nudges their scores.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromOrders() {
+        long start = System.nanoTime();
+        int[] rows = {0};
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(
+                    "SELECT customerId, productId FROM ORDERS WHERE customerId IS NOT NULL ORDER BY id");
+            statement.setFetchSize(1000);
+            return statement;
+        }, rs -> {
+            counter.record(rs.getInt(1), rs.getInt(2));
+            rows[0]++;
+        });
+        rebuildSnapshot();
+        log.info("Recommendations built from {} orders in {} ms ({} products)",
+                rows[0], (System.nanoTime() - start) / 1_000_000, snapshot.get().size());
+    }
 }
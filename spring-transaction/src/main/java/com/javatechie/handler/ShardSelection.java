@@ -0,0 +1,12 @@
+package com.javatechie.handler;
+
+/**
+ * Shard tried first for an order on a sharded product ({@code inventory.sharding.selection}).
+ */
+public enum ShardSelection {
+
+    RANDOM,
+
+    // per product, spreads consecutive orders evenly over the shards
+    ROUND_ROBIN
+}
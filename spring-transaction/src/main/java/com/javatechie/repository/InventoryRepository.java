@@ -1,7 +1,40 @@
 package com.javatechie.repository;
 
 import com.javatechie.entity.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Product,Integer> {
+
+    // decrement only if enough stock is left, returns the affected row count (0 or 1)
+    @Modifying
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1 " +
+            "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int reserveStock(@Param("id") int id, @Param("quantity") int quantity);
+
+    // plain read, no row lock : orders on a sharded product must not queue on its Product row
+    @Query("SELECT p.shardCount FROM Product p WHERE p.id = :id")
+    Optional<Integer> findShardCount(@Param("id") int id);
+
+    // [id, shard count] of the sharded products among ids
+    @Query("SELECT p.id, p.shardCount FROM Product p WHERE p.id IN :ids AND p.shardCount > 0")
+    List<Object[]> findShardCounts(@Param("ids") Collection<Integer> ids);
+
+    // shardCount is not updatable through the entity, see Product
+    @Modifying
+    @Query("UPDATE Product p SET p.shardCount = :shardCount WHERE p.id = :id")
+    int updateShardCount(@Param("id") int id, @Param("shardCount") int shardCount);
+
+    // SELECT ... FOR UPDATE, the row stays locked until the transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") int id);
 }
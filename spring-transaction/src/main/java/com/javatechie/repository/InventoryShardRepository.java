@@ -0,0 +1,13 @@
+package com.javatechie.repository;
+
+import com.javatechie.entity.InventoryShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface InventoryShardRepository extends JpaRepository<InventoryShard, Long> {
+
+    @Modifying
+    @Query("DELETE FROM InventoryShard s WHERE s.productId = :productId")
+    int deleteByProductId(int productId);
+}
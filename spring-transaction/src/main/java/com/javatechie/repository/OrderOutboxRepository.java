@@ -0,0 +1,42 @@
+package com.javatechie.repository;
+
+import com.javatechie.entity.OrderOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    // lock timeout -2 is Hibernate's SKIP LOCKED : concurrent relays take disjoint batches.
+    // Dialects without it (H2) fall back to a plain FOR UPDATE
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    // pending events whose retry backoff is over, dead-lettered ones are left out
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.processedAt IS NULL AND e.deadLetteredAt IS NULL" +
+            " AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.id")
+    List<OrderOutboxEvent> findPendingForUpdate(Instant now, Pageable page);
+
+    @Modifying
+    @Query("UPDATE OrderOutboxEvent e SET e.processedAt = :processedAt WHERE e.id IN :ids")
+    int markProcessed(Collection<Long> ids, Instant processedAt);
+
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(Instant before);
+
+    long countByProcessedAtIsNullAndDeadLetteredAtIsNull();
+
+    long countByDeadLetteredAtIsNotNull();
+
+    @Query("SELECT MIN(e.createdAt) FROM OrderOutboxEvent e WHERE e.processedAt IS NULL AND e.deadLetteredAt IS NULL")
+    Instant oldestPendingCreatedAt();
+}
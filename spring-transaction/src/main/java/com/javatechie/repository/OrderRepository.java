@@ -3,5 +3,13 @@ package com.javatechie.repository;
 import com.javatechie.entity.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface OrderRepository extends JpaRepository<Order,Integer> {
+
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
+
+    List<Order> findAllByIdempotencyKeyIn(Collection<String> idempotencyKeys);
 }
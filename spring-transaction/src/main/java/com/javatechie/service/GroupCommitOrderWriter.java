@@ -0,0 +1,228 @@
+package com.javatechie.service;
+
+import com.javatechie.dto.OrderResult;
+import com.javatechie.entity.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit of single orders ({@code orders.group-commit.enabled}).
+ * <p>
+ * Callers put their order on a bounded queue and wait. Writer threads drain it into batches of up to
+ * {@code orders.group-commit.max-batch-size} orders, waiting at most {@code orders.group-commit.max-wait-ms}
+ * after the first one, and place each batch with {@link OrderProcessingService#placeOrders(List)} :
+ * one transaction and one commit for the whole batch. The outcome of every order goes back to its caller.
+ * When the queue stays full the caller places its order itself.
+ * <p>
+ * A caller waits at most {@code orders.group-commit.result-timeout-ms} for its batch. On shutdown the writers
+ * commit what they already took, and orders still queued after that fail instead of waiting forever.
+ */
+@Component
+@Slf4j
+public class GroupCommitOrderWriter {
+
+    private final OrderProcessingService orderProcessingService;
+
+    private final ThreadFactory workerThreadFactory;
+
+    private final boolean enabled;
+
+    private final int writers;
+
+    private final int maxBatchSize;
+
+    private final long maxWaitNanos;
+
+    private final long enqueueTimeoutMillis;
+
+    private final long resultTimeoutMillis;
+
+    private final BlockingQueue<PendingOrder> queue;
+
+    private final DistributionSummary batchSizes;
+
+    private final Counter overflowed;
+
+    private final List<Thread> writerThreads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public GroupCommitOrderWriter(OrderProcessingService orderProcessingService,
+                                  ThreadFactory workerThreadFactory,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${orders.group-commit.enabled:false}") boolean enabled,
+                                  @Value("${orders.group-commit.writers:2}") int writers,
+                                  @Value("${orders.group-commit.max-batch-size:64}") int maxBatchSize,
+                                  @Value("${orders.group-commit.max-wait-ms:5}") long maxWaitMillis,
+                                  @Value("${orders.group-commit.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${orders.group-commit.enqueue-timeout-ms:20}") long enqueueTimeoutMillis,
+                                  @Value("${orders.group-commit.result-timeout-ms:30000}") long resultTimeoutMillis) {
+        this.orderProcessingService = orderProcessingService;
+        this.workerThreadFactory = workerThreadFactory;
+        this.enabled = enabled;
+        this.writers = writers;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+        this.resultTimeoutMillis = resultTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("orders.group-commit.queue.size", queue, BlockingQueue::size)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("orders.group-commit.batch.size")
+                .description("Orders committed together in one transaction")
+                .register(meterRegistry);
+        this.overflowed = Counter.builder("orders.group-commit.overflow")
+                .description("Orders placed by the caller because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            Thread thread = workerThreadFactory.newThread(this::drainLoop);
+            thread.setName("group-commit-writer-" + i);
+            thread.start();
+            writerThreads.add(thread);
+        }
+    }
+
+    /**
+     * Place the order in the next group commit and wait for its outcome.
+     *
+     * @return the placed order
+     */
+    public Order place(Order order) {
+        PendingOrder pending = new PendingOrder(order, new CompletableFuture<>());
+        boolean queued;
+        try {
+            queued = running && queue.offer(pending, enqueueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        // stopped while we were offering : take it back unless a writer or shutdown() already has it
+        if (queued && !running && queue.remove(pending)) {
+            queued = false;
+        }
+        if (!queued) {
+            // queue full or writer stopped : place it alone rather than reject it
+            overflowed.increment();
+            return orderProcessingService.placeAnOrder(order);
+        }
+
+        OrderResult result;
+        try {
+            result = pending.result().get(resultTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            // the batch may still commit it, a retry with the same idempotency key is safe
+            throw new IllegalStateException("Group commit of order " + order.getId()
+                    + " did not complete within " + resultTimeoutMillis + " ms");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for order " + order.getId());
+        }
+        if (!OrderResult.SUCCESS.equals(result.getStatus())) {
+            throw new RuntimeException(result.getMessage());
+        }
+        return result.getOrder();
+    }
+
+    private void drainLoop() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(maxWaitNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // keep collecting until the batch is full or the first order waited long enough
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        try {
+            List<OrderResult> results = orderProcessingService.placeOrders(batch.stream().map(PendingOrder::order).toList());
+            batchSizes.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException ex) {
+            // the whole transaction failed, so did every order in it
+            log.warn("Group commit of {} orders failed", batch.size(), ex);
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+        }
+    }
+
+    /**
+     * Stop taking orders, let the writers commit what is queued and fail whatever they left behind.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread thread : writerThreads) {
+            thread.join(TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + 5000);
+        }
+        List<PendingOrder> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            log.warn("Group commit writer stopped with {} orders still queued", left.size());
+            IllegalStateException stopped = new IllegalStateException("Group commit writer stopped");
+            left.forEach(pending -> pending.result().completeExceptionally(stopped));
+        }
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<OrderResult> result) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.javatechie.service;
+
+import com.javatechie.dto.OrderPlacedEvent;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.NotificationGateway;
+import com.javatechie.handler.NotificationOutbox;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends order confirmations once the order transaction committed, off the request thread.
+ * <p>
+ * Each notification is first recorded in the {@link NotificationOutbox}, then sent on a bounded
+ * executor. The committing thread only appends the record, the sender forces it to disk
+ * (shared with the other records appended meanwhile) before the first attempt. A failed send is
+ * retried up to {@code notification.retry.max-attempts} times with exponential backoff and full
+ * jitter. Whatever is still pending (retries exhausted, executor full, restart) is sent again by
+ * {@link #redeliverPending()}.
+ * <p>
+ * The record is appended after the order committed, not with it : a crash between the commit and
+ * the next {@code fsync} (at most {@code notification.outbox.sync-interval-ms}) loses the
+ * confirmation of that order without a trace. Writing and forcing it before the commit would hold
+ * the order's row locks for an {@code fsync} and leave a record behind for orders rolled back.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private final NotificationGateway notificationGateway;
+
+    private final NotificationOutbox outbox;
+
+    private final ThreadPoolExecutor executor;
+
+    // waits out the backoff, so the workers never sleep between attempts
+    private final ScheduledExecutorService retryScheduler;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMillis;
+
+    private final long maxBackoffMillis;
+
+    // orders currently queued, sending or waiting for a retry, not picked up again by the redelivery
+    private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Counter sent;
+
+    private final Counter retried;
+
+    private final Counter failed;
+
+    private final Counter rejected;
+
+    public NotificationDispatcher(NotificationGateway notificationGateway,
+                                  NotificationOutbox outbox,
+                                  ThreadFactory workerThreadFactory,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notification.executor.threads:4}") int threads,
+                                  @Value("${notification.executor.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${notification.retry.max-attempts:5}") int maxAttempts,
+                                  @Value("${notification.retry.initial-backoff-ms:200}") long initialBackoffMillis,
+                                  @Value("${notification.retry.max-backoff-ms:10000}") long maxBackoffMillis) {
+        this.notificationGateway = notificationGateway;
+        this.outbox = outbox;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), workerThreadFactory);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(workerThreadFactory);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+
+        Gauge.builder("notification.outbox.pending", outbox, NotificationOutbox::pendingCount)
+                .description("Notifications recorded in the outbox and not delivered yet")
+                .register(meterRegistry);
+        Gauge.builder("notification.executor.queue.size", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        this.sent = meterRegistry.counter("notification.sent");
+        this.retried = meterRegistry.counter("notification.retried");
+        this.failed = Counter.builder("notification.failed")
+                .description("Notifications given up after all attempts, left in the outbox for redelivery")
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("notification.rejected");
+    }
+
+    // only runs once the order is stored, a rolled back order never notifies the customer
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        Order order = event.order();
+        outbox.append(order);
+        dispatch(order);
+    }
+
+    /**
+     * Send again every notification still pending in the outbox, on startup and periodically.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${notification.outbox.redeliver-interval-ms:30000}",
+            fixedDelayString = "${notification.outbox.redeliver-interval-ms:30000}")
+    public void redeliverPending() {
+        for (Order order : outbox.pending()) {
+            dispatch(order);
+        }
+    }
+
+    private void dispatch(Order order) {
+        if (inFlight.add(order.getId())) {
+            submit(order, 1);
+        }
+    }
+
+    private void submit(Order order, int attempt) {
+        try {
+            executor.execute(() -> send(order, attempt));
+        } catch (RejectedExecutionException ex) {
+            // executor full or stopping : stays in the outbox, the next redelivery picks it up
+            rejected.increment();
+            inFlight.remove(order.getId());
+        }
+    }
+
+    private void send(Order order, int attempt) {
+        try {
+            // never send a notification the outbox could lose
+            outbox.sync();
+            notificationGateway.sendOrderConfirmation(order);
+            outbox.markDone(order.getId());
+            inFlight.remove(order.getId());
+            sent.increment();
+        } catch (RuntimeException ex) {
+            if (attempt >= maxAttempts) {
+                failed.increment();
+                inFlight.remove(order.getId());
+                log.warn("Order {} confirmation failed after {} attempts, left in the outbox", order.getId(), attempt, ex);
+                return;
+            }
+            retried.increment();
+            long delay = backoffMillis(attempt);
+            log.debug("Order {} confirmation failed (attempt {}), retrying in {} ms", order.getId(), attempt, delay);
+            try {
+                retryScheduler.schedule(() -> submit(order, attempt + 1), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException stopped) {
+                inFlight.remove(order.getId());
+            }
+        }
+    }
+
+    // full jitter : uniform in [0, min(max, initial * 2^(attempt-1))], retries of many orders do not line up
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Stop sending, notifications not delivered yet stay in the outbox for the next start.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.OrderOutboxEvent;
+import com.javatechie.handler.OrderEventSink;
+import com.javatechie.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes pending {@link OrderOutboxEvent}s to the {@link OrderEventSink}.
+ * <p>
+ * Each batch is locked ({@code SKIP LOCKED} where the database supports it, so several instances
+ * can relay side by side), published and marked done with one bulk update in the same transaction.
+ * Delivery is at least once. When the sink rejects a batch its events are published one by one, so a
+ * poison event does not hold back the others. An event failing on its own is retried with an exponential
+ * backoff ({@code outbox.relay.retry-backoff} doubling up to {@code outbox.relay.max-backoff}) and
+ * dead-lettered after {@code outbox.relay.max-attempts} attempts : it stays in the table with its last
+ * error and is no longer polled.
+ * Batches are relayed back to back until the backlog is drained.
+ * <p>
+ * {@code outbox.relay.event.age} is the age of an event when it is published, counted from when it was
+ * written in the order transaction, so it includes the rest of that transaction. The backlog gauges are
+ * refreshed every {@code outbox.relay.backlog-refresh-interval-ms}, not on every poll.
+ */
+@Component
+@Slf4j
+public class OrderOutboxRelay {
+
+    private final OrderOutboxRepository outboxRepository;
+
+    private final OrderEventSink sink;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final Duration retention;
+
+    private final int maxAttempts;
+
+    private final Duration retryBackoff;
+
+    private final Duration maxBackoff;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+
+    private final AtomicLong deadLetteredTotal = new AtomicLong();
+
+    private final Counter published;
+
+    private final Counter failures;
+
+    private final Counter deadLettered;
+
+    private final DistributionSummary batchSizes;
+
+    private final Timer eventAge;
+
+    private final Timer batchTimer;
+
+    public OrderOutboxRelay(OrderOutboxRepository outboxRepository,
+                            OrderEventSink sink,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${outbox.relay.enabled:true}") boolean enabled,
+                            @Value("${outbox.relay.batch-size:200}") int batchSize,
+                            @Value("${outbox.relay.retention:1d}") Duration retention,
+                            @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+                            @Value("${outbox.relay.retry-backoff:1s}") Duration retryBackoff,
+                            @Value("${outbox.relay.max-backoff:5m}") Duration maxBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.sink = sink;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setName("OrderOutboxRelay.relayBatch");
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+
+        this.published = Counter.builder("outbox.relay.published")
+                .description("Order events published to the sink, its rate is the relay throughput")
+                .register(meterRegistry);
+        this.failures = meterRegistry.counter("outbox.relay.failures");
+        this.deadLettered = Counter.builder("outbox.relay.dead.lettered")
+                .description("Order events given up after outbox.relay.max-attempts failed publications")
+                .register(meterRegistry);
+        this.batchSizes = meterRegistry.summary("outbox.relay.batch.size");
+        this.eventAge = Timer.builder("outbox.relay.event.age")
+                .description("Time from the event being written in the order transaction (before its commit) to its publication")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchTimer = meterRegistry.timer("outbox.relay.batch");
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Order events not published yet, as of the last backlog refresh")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending.oldest.age", oldestPendingAgeMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("outbox.dead.lettered", deadLetteredTotal, AtomicLong::get)
+                .description("Dead-lettered order events in the table, as of the last backlog refresh")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.error("Order outbox relay failed, the batch stays pending", ex);
+        }
+    }
+
+    /**
+     * @return number of events published, 0 once nothing is due
+     */
+    public int relayBatch() {
+        Integer relayed = batchTimer.record(() -> transactionTemplate.execute(status -> {
+            List<OrderOutboxEvent> batch = outboxRepository.findPendingForUpdate(Instant.now(), PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            List<OrderOutboxEvent> delivered = publish(batch);
+            if (delivered.isEmpty()) {
+                return 0;
+            }
+            Instant processedAt = Instant.now();
+            outboxRepository.markProcessed(delivered.stream().map(OrderOutboxEvent::getId).toList(), processedAt);
+            delivered.forEach(event -> eventAge.record(Duration.between(event.getCreatedAt(), processedAt)));
+            return delivered.size();
+        }));
+        published.increment(relayed);
+        if (relayed > 0) {
+            batchSizes.record(relayed);
+        }
+        return relayed;
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-ms:3600000}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxRepository.deleteProcessedBefore(Instant.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} published order events older than {}", deleted, retention);
+        }
+    }
+
+    // COUNT and MIN over the pending rows, far less often than the polls
+    @Scheduled(fixedDelayString = "${outbox.relay.backlog-refresh-interval-ms:5000}")
+    public void refreshBacklog() {
+        if (!enabled) {
+            return;
+        }
+        pending.set(outboxRepository.countByProcessedAtIsNullAndDeadLetteredAtIsNull());
+        Instant oldest = outboxRepository.oldestPendingCreatedAt();
+        oldestPendingAgeMillis.set(oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis());
+        deadLetteredTotal.set(outboxRepository.countByDeadLetteredAtIsNotNull());
+    }
+
+    // the events of a rejected batch are published one by one, the ones failing on their own
+    // are updated in this transaction : next attempt after the backoff, or dead-lettered
+    private List<OrderOutboxEvent> publish(List<OrderOutboxEvent> batch) {
+        try {
+            sink.publish(batch);
+            return batch;
+        } catch (RuntimeException ex) {
+            failures.increment();
+            log.warn("Publishing {} order events failed, publishing them one by one", batch.size(), ex);
+        }
+        List<OrderOutboxEvent> delivered = new ArrayList<>(batch.size());
+        for (OrderOutboxEvent event : batch) {
+            try {
+                sink.publish(List.of(event));
+                delivered.add(event);
+            } catch (RuntimeException ex) {
+                failed(event, ex);
+            }
+        }
+        return delivered;
+    }
+
+    private void failed(OrderOutboxEvent event, RuntimeException ex) {
+        Instant now = Instant.now();
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(abbreviate(String.valueOf(ex)));
+        if (event.getAttempts() >= maxAttempts) {
+            event.setDeadLetteredAt(now);
+            deadLettered.increment();
+            log.error("Order event {} of order {} dead-lettered after {} attempts",
+                    event.getId(), event.getOrderId(), event.getAttempts(), ex);
+            return;
+        }
+        // retry-backoff, twice that, four times that ... up to max-backoff
+        long backoffMillis = Math.min(maxBackoff.toMillis(), retryBackoff.toMillis() << Math.min(event.getAttempts() - 1, 20));
+        event.setNextAttemptAt(now.plusMillis(backoffMillis));
+        log.debug("Order event {} failed, attempt {} of {}", event.getId(), event.getAttempts(), maxAttempts);
+    }
+
+    private static String abbreviate(String error) {
+        return error.length() <= 500 ? error : error.substring(0, 500);
+    }
+}
@@ -0,0 +1,114 @@
+package com.javatechie.service;
+
+import com.javatechie.dto.OrderResult;
+import com.javatechie.dto.ProductDetails;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.IdempotencyHandler;
+import com.javatechie.handler.InventoryHandler;
+import com.javatechie.handler.PaymentValidatorHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point for placing orders, in front of the transactional {@link OrderProcessingService}.
+ * <p>
+ * With {@code payment.validation.mode=PRE_TRANSACTION} the payment is validated here, before the
+ * order transaction opens : a rejected order never takes a connection or a lock, and the order
+ * transaction needs no savepoint. Batches are always validated here, per order, since orders of
+ * one batch share a single transaction.
+ * <p>
+ * Retries are detected by {@link IdempotencyHandler} before any inventory read.
+ * With group commit enabled single orders are placed through {@link GroupCommitOrderWriter},
+ * validated here like batch orders.
+ */
+@Service
+public class OrderPlacementService {
+
+    private final OrderProcessingService orderProcessingService;
+
+    private final InventoryHandler inventoryHandler;
+
+    private final PaymentValidatorHandler paymentValidatorHandler;
+
+    private final PaymentValidationMode paymentValidationMode;
+
+    private final IdempotencyHandler idempotencyHandler;
+
+    private final GroupCommitOrderWriter groupCommitOrderWriter;
+
+    public OrderPlacementService(OrderProcessingService orderProcessingService,
+                                 InventoryHandler inventoryHandler,
+                                 PaymentValidatorHandler paymentValidatorHandler,
+                                 @Value("${payment.validation.mode:PRE_TRANSACTION}") PaymentValidationMode paymentValidationMode,
+                                 IdempotencyHandler idempotencyHandler,
+                                 GroupCommitOrderWriter groupCommitOrderWriter) {
+        this.orderProcessingService = orderProcessingService;
+        this.inventoryHandler = inventoryHandler;
+        this.paymentValidatorHandler = paymentValidatorHandler;
+        this.paymentValidationMode = paymentValidationMode;
+        this.idempotencyHandler = idempotencyHandler;
+        this.groupCommitOrderWriter = groupCommitOrderWriter;
+    }
+
+    public Order placeOrder(Order order) {
+        return placeOrder(order, null);
+    }
+
+    /**
+     * @param idempotencyKey key shared by the retries of one request, derived from the order id when absent
+     * @return the placed order, or the order placed by an earlier request with the same key
+     */
+    public Order placeOrder(Order order, String idempotencyKey) {
+        return idempotencyHandler.placeOnce(order, idempotencyKey, () -> {
+            if (groupCommitOrderWriter.isEnabled()) {
+                // committed together with other orders, payment cannot be validated inside that transaction
+                validatePayment(order);
+                return groupCommitOrderWriter.place(order);
+            }
+            if (paymentValidationMode == PaymentValidationMode.PRE_TRANSACTION) {
+                validatePayment(order);
+            }
+            return orderProcessingService.placeAnOrder(order);
+        });
+    }
+
+    /**
+     * Orders failing payment validation are reported as failed and left out of the batch transaction.
+     *
+     * @return outcome of each order, in the same order as the request
+     */
+    public List<OrderResult> placeOrders(List<Order> orders) {
+        OrderResult[] results = new OrderResult[orders.size()];
+        List<Order> validated = new ArrayList<>(orders.size());
+        List<Integer> validatedIndexes = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            // duplicates are rejected by placeOrders against the unique key index
+            idempotencyHandler.stamp(order, null);
+            try {
+                validatePayment(order);
+                validated.add(order);
+                validatedIndexes.add(i);
+            } catch (RuntimeException ex) {
+                results[i] = OrderResult.failed(order, ex.getMessage());
+            }
+        }
+
+        List<OrderResult> placed = orderProcessingService.placeOrders(validated);
+        for (int i = 0; i < placed.size(); i++) {
+            results[validatedIndexes.get(i)] = placed.get(i);
+        }
+        return Arrays.asList(results);
+    }
+
+    // price from the product cache, the order transaction computes the same total
+    private void validatePayment(Order order) {
+        ProductDetails product = inventoryHandler.getProductDetails(order.getProductId());
+        order.setTotalPrice(order.getQuantity() * product.price());
+        paymentValidatorHandler.validatePaymentBeforeTransaction(order);
+    }
+}
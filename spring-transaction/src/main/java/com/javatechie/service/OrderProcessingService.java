@@ -1,13 +1,28 @@
 package com.javatechie.service;
 
+import com.javatechie.dto.OrderPlacedEvent;
+import com.javatechie.dto.OrderResult;
+import com.javatechie.dto.ProductDetails;
 import com.javatechie.entity.Order;
 import com.javatechie.entity.Product;
 import com.javatechie.handler.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
 @Service
 public class OrderProcessingService {
 
@@ -19,23 +34,31 @@ public class OrderProcessingService {
 
     private final PaymentValidatorHandler paymentValidatorHandler;
 
-    private final NotificationHandler notificationHandler;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final ProductRecommendationHandler recommendationHandler;
 
+    private final StockReservationLedger stockReservationLedger;
+
+    private final PaymentValidationMode paymentValidationMode;
+
 
     public OrderProcessingService(OrderHandler orderHandler,
                                   InventoryHandler inventoryHandler,
                                   AuditLogHandler auditLogHandler,
                                   PaymentValidatorHandler paymentValidatorHandler,
-                                  NotificationHandler notificationHandler,
-                                  ProductRecommendationHandler recommendationHandler) {
+                                  ApplicationEventPublisher eventPublisher,
+                                  ProductRecommendationHandler recommendationHandler,
+                                  StockReservationLedger stockReservationLedger,
+                                  @Value("${payment.validation.mode:PRE_TRANSACTION}") PaymentValidationMode paymentValidationMode) {
         this.orderHandler = orderHandler;
         this.inventoryHandler = inventoryHandler;
         this.auditLogHandler = auditLogHandler;
         this.paymentValidatorHandler = paymentValidatorHandler;
-        this.notificationHandler = notificationHandler;
+        this.eventPublisher = eventPublisher;
         this.recommendationHandler = recommendationHandler;
+        this.stockReservationLedger = stockReservationLedger;
+        this.paymentValidationMode = paymentValidationMode;
     }
 
     // REQUIRED : join an existing transaction or create a new one if not exist
@@ -52,31 +75,34 @@ public class OrderProcessingService {
     @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.DEFAULT)
     public Order placeAnOrder(Order order) {
 
-        // get product inventory
-        Product product = inventoryHandler.getProduct(order.getProductId());
-
-        // validate stock availability <(5)
-        validateStockAvailability(order, product);
+        // get product name and price, cached : stock is never read from the cache
+        ProductDetails product = inventoryHandler.getProductDetails(order.getProductId());
 
         // update total price in order entity
-        order.setTotalPrice(order.getQuantity() * product.getPrice());
+        order.setTotalPrice(order.getQuantity() * product.price());
+
+        // validate stock availability and update stock in inventory in one step
+        if (!reserveStock(order)) {
+            throw new RuntimeException("Insufficient stock !");
+        }
 
         Order saveOrder = null;
         try {
             //save order
             saveOrder = orderHandler.saveOrder(order);
 
-            //update stock in inventory
-            updateInventoryStock(order, product);
             auditLogHandler.logAuditDetails(order, "order placement succeeded");
+
+            // confirmation is sent by NotificationDispatcher once this transaction commits
+            eventPublisher.publishEvent(new OrderPlacedEvent(saveOrder));
         } catch (Exception ex) {
             auditLogHandler.logAuditDetails(order, "order placement failed");
         }
 
-        //retries 3
-        //notificationHandler.sendOrderConfirmationNotification(order);
-
-         paymentValidatorHandler.validatePayment(order);
+        // PRE_TRANSACTION : OrderPlacementService validated the payment before this transaction opened
+        if (paymentValidationMode == PaymentValidationMode.NESTED) {
+            paymentValidatorHandler.validatePayment(order);
+        }
 
         // recommendationHandler.getRecommendations();
 
@@ -86,6 +112,103 @@ public class OrderProcessingService {
     }
 
 
+    /**
+     * Batch mode of {@link #placeAnOrder(Order)} : one transaction for the whole batch.
+     * Orders are grouped by product so each product row is read once, stock is checked
+     * across the whole group and orders, inventory and audit rows are written with JDBC batching.
+     * A failing order does not fail the batch, its outcome is reported in the result.
+     *
+     * @param orders orders to place
+     * @return outcome of each order, in the same order as the request
+     */
+    @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.DEFAULT)
+    public List<OrderResult> placeOrders(List<Order> orders) {
+        OrderResult[] results = new OrderResult[orders.size()];
+
+        // reject ids and idempotency keys already stored or repeated inside the batch
+        Set<Integer> existingIds = orderHandler.findExistingOrderIds(orders.stream().map(Order::getId).toList());
+        Set<String> existingKeys = orderHandler.findExistingIdempotencyKeys(orders.stream()
+                .map(Order::getIdempotencyKey).filter(Objects::nonNull).toList());
+        Set<Integer> seenIds = new HashSet<>();
+        Set<String> seenKeys = new HashSet<>();
+        Map<Integer, List<Integer>> ordersByProduct = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (existingIds.contains(order.getId()) || !seenIds.add(order.getId())) {
+                results[i] = OrderResult.failed(order, "Order already exists with id : " + order.getId());
+                continue;
+            }
+            String key = order.getIdempotencyKey();
+            if (key != null && (existingKeys.contains(key) || !seenKeys.add(key))) {
+                results[i] = OrderResult.failed(order, "Idempotency key already used : " + key);
+                continue;
+            }
+            ordersByProduct.computeIfAbsent(order.getProductId(), productId -> new ArrayList<>()).add(i);
+        }
+
+        // get product inventory, one query for the whole batch
+        Map<Integer, Product> products = inventoryHandler.getProducts(ordersByProduct.keySet());
+
+        // validate stock availability across each product group
+        Map<Integer, Integer> reservedQuantities = new HashMap<>();
+        Map<Integer, List<Integer>> acceptedByProduct = new LinkedHashMap<>();
+        ordersByProduct.forEach((productId, indexes) -> {
+            Product product = products.get(productId);
+            int availableStock = product == null ? 0 : inventoryHandler.availableStock(product);
+            for (int index : indexes) {
+                Order order = orders.get(index);
+                if (product == null) {
+                    results[index] = OrderResult.failed(order, "Product not available with id : " + productId);
+                } else if (order.getQuantity() > availableStock) {
+                    results[index] = OrderResult.failed(order, "Insufficient stock !");
+                } else {
+                    availableStock -= order.getQuantity();
+                    reservedQuantities.merge(productId, order.getQuantity(), Integer::sum);
+                    acceptedByProduct.computeIfAbsent(productId, id -> new ArrayList<>()).add(index);
+                }
+            }
+        });
+
+        // update stock in inventory first, a product drained by a concurrent order fails its whole group.
+        // With the ledger enabled each order reserves against it instead
+        Set<Integer> drainedProducts = stockReservationLedger.isEnabled()
+                ? Set.of()
+                : inventoryHandler.decrementStock(reservedQuantities);
+        List<Order> accepted = new ArrayList<>();
+        acceptedByProduct.forEach((productId, indexes) -> {
+            for (int index : indexes) {
+                Order order = orders.get(index);
+                boolean reserved = stockReservationLedger.isEnabled()
+                        ? stockReservationLedger.reserve(order)
+                        : !drainedProducts.contains(productId);
+                if (!reserved) {
+                    results[index] = OrderResult.failed(order, "Insufficient stock !");
+                } else {
+                    order.setTotalPrice(order.getQuantity() * products.get(productId).getPrice());
+                    results[index] = OrderResult.success(order);
+                    accepted.add(order);
+                }
+            }
+        });
+
+        //save orders and audit logs
+        orderHandler.saveOrders(accepted);
+        auditLogHandler.logAuditDetails(accepted, "order placement succeeded");
+        accepted.forEach(order -> eventPublisher.publishEvent(new OrderPlacedEvent(order)));
+
+        // failed orders are audited like in placeAnOrder
+        List<Order> failed = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            if (OrderResult.FAILED.equals(results[i].getStatus())) {
+                failed.add(orders.get(i));
+            }
+        }
+        auditLogHandler.logAuditDetails(failed, "order placement failed");
+
+        return Arrays.asList(results);
+    }
+
+
     @Transactional(propagation = Propagation.SUPPORTS)
     public void getCustomerDetails() {
         System.out.println("Customer details fetched !!!!!");
@@ -93,23 +216,16 @@ public class OrderProcessingService {
 
     // Call this method after placeAnOrder is successfully completed
     public void processOrder(Order order) {
-        // Step 1: Place the order
+        // Place the order, the confirmation goes out asynchronously after commit (NotificationDispatcher)
         Order savedOrder = placeAnOrder(order);
-
-        // Step 2: Send notification (non-transactional)
-        notificationHandler.sendOrderConfirmationNotification(order);
     }
 
-    private static void validateStockAvailability(Order order, Product product) {
-        if (order.getQuantity() > product.getStockQuantity()) {
-            throw new RuntimeException("Insufficient stock !");
+    private boolean reserveStock(Order order) {
+        // hot products : reserve against the in-memory ledger, its flusher writes the net delta later
+        if (stockReservationLedger.isEnabled()) {
+            return stockReservationLedger.reserve(order);
         }
-    }
-
-    private void updateInventoryStock(Order order, Product product) {
-        int availableStock = product.getStockQuantity() - order.getQuantity();
-        product.setStockQuantity(availableStock);
-        inventoryHandler.updateProductDetails(product);
+        return inventoryHandler.reserveStock(order.getProductId(), order.getQuantity());
     }
 
 
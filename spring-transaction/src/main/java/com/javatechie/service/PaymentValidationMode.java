@@ -0,0 +1,14 @@
+package com.javatechie.service;
+
+/**
+ * Where payment is validated for an order ({@code payment.validation.mode}).
+ */
+public enum PaymentValidationMode {
+
+    // inside the order transaction, as a NESTED transaction : one savepoint per order
+    NESTED,
+
+    // before the order transaction opens (OrderPlacementService), no savepoint and no
+    // connection held while validating; failures are audited through the audit pipeline
+    PRE_TRANSACTION
+}
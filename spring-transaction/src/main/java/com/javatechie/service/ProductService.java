@@ -1,6 +1,8 @@
 package com.javatechie.service;
 
+import com.javatechie.config.LatencyInjector;
 import com.javatechie.entity.Product;
+import com.javatechie.handler.InventoryHandler;
 import com.javatechie.repository.InventoryRepository;
 import jakarta.persistence.EntityManager;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,8 @@ import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+// Isolation level demos (see service.isolation). Transaction A writes through StockUpdateService,
+// so the configured locking strategy (inventory.stock-update.strategy) applies inside it
 @Component
 public class ProductService {
 
@@ -21,29 +25,38 @@ public class ProductService {
     @Autowired
     private EntityManager entityManager;
 
-    // Transaction A:
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void updateStock(int productId, int stock) throws InterruptedException {
+    @Autowired
+    private StockReservationLedger stockReservationLedger;
 
-        // Retrieve the product and update its stock
+    @Autowired
+    private InventoryHandler inventoryHandler;
 
-        Product product = inventoryRepository.findById(productId)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        product.setStockQuantity(stock);
+    @Autowired
+    private StockUpdateService stockUpdateService;
+
+    // demo delays (latency.injection.product-service.*), the isolation demos force them,
+    // other callers only wait with latency.injection.enabled=true
+    @Autowired
+    private LatencyInjector latencyInjector;
+
+    // Transaction A: holdOpen keeps it open for the configured delay before committing
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public void updateStock(int productId, int stock, boolean holdOpen) throws InterruptedException {
 
-        inventoryRepository.save(product);
-        entityManager.flush(); // Ensure the update is sent to the DB
+        // Update the stock with the configured strategy, it joins this transaction and
+        // flushes the update to the DB (the ledger counter reloads once this commits)
+        stockUpdateService.setStock(productId, stock);
 
         // Simulate a long-running transaction (does not commit yet)
         System.out.println("Transaction A: Stock updated to " + stock);
-        Thread.sleep(5000);
+        latencyInjector.inject("product-service.update-stock", holdOpen);
 
 //        System.out.println("Transaction A: Rolling back the update");
 //        TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();//explicit rollback
         System.out.println("Transaction A: Committed the update");
     }
 
-    // Transaction B: Read stock
+    // Transaction B: Read stock, read-write so it stays on the primary next to Transaction A (datasource.routing.enabled)
     @Transactional(isolation = Isolation.SERIALIZABLE)
     public int checkStock(int productId) {
 
@@ -51,8 +64,10 @@ public class ProductService {
         Product product = inventoryRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
-        System.out.println("Transaction B: Read stock as " + product.getStockQuantity());
-        return product.getStockQuantity();
+        // shards of a sharded product hold its stock, reservations held by the ledger are not written back to the row yet
+        int stock = inventoryHandler.availableStock(product) - Math.toIntExact(stockReservationLedger.unflushedQuantity(productId));
+        System.out.println("Transaction B: Read stock as " + stock);
+        return stock;
     }
 
     // Transaction B: Read stock multiple times
@@ -66,7 +81,7 @@ public class ProductService {
 
         // Simulate a delay to allow Transaction A to update the stock
         try {
-            Thread.sleep(3000);
+            latencyInjector.inject("product-service.fetch-stock", true); // only the repeatable read demo reads twice
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
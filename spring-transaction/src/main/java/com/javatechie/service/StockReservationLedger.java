@@ -0,0 +1,321 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.Order;
+import com.javatechie.entity.Product;
+import com.javatechie.handler.AuditLogHandler;
+import com.javatechie.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory stock counters for hot products.
+ * <p>
+ * Orders reserve against an {@link AtomicLong} per product instead of updating the {@code Product}
+ * row, so concurrent orders on one product no longer queue on its row lock. A scheduled flusher
+ * writes the net delta of committed reservations back to the database in one statement per product.
+ * <p>
+ * Every reservation writes a {@value #RESERVED_ACTION} audit row inside the order transaction and
+ * every flush writes a {@value #FLUSHED_ACTION} row in the same transaction as the stock update,
+ * so reservations lost by a crash are replayed from {@code AuditLog} on the next start.
+ * <p>
+ * While enabled, every stock decrement of a product must go through the ledger.
+ */
+@Component
+@Slf4j
+public class StockReservationLedger {
+
+    static final String RESERVED_ACTION = "stock reserved in ledger";
+    static final String FLUSHED_ACTION = "stock flushed from ledger";
+
+    private static final int STRIPES = 64;
+
+    private final boolean enabled;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final AuditLogHandler auditLogHandler;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, ProductCounter> counters = new ConcurrentHashMap<>();
+
+    // invalidated counters, kept until their last in-flight reservation is flushed
+    private final Set<ProductCounter> retiredCounters = ConcurrentHashMap.newKeySet();
+
+    // loading, flushing and dropping a counter is serialized per stripe of product ids,
+    // reservations themselves never take these locks
+    private final Object[] stripeLocks = new Object[STRIPES];
+
+    private final LongAdder reservations = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    public StockReservationLedger(@Value("${inventory.ledger.enabled:false}") boolean enabled,
+                                  InventoryRepository inventoryRepository,
+                                  AuditLogHandler auditLogHandler,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.inventoryRepository = inventoryRepository;
+        this.auditLogHandler = auditLogHandler;
+        this.jdbcTemplate = jdbcTemplate;
+        // flushes may run from afterCommit callbacks, never join the finished transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserve the order quantity against the in-memory counter of its product.
+     * The reservation only becomes pending for the flusher once the surrounding
+     * transaction commits; a rollback gives the quantity back.
+     *
+     * @return false if not enough stock is left
+     */
+    public boolean reserve(Order order) {
+        ProductCounter counter = counterFor(order.getProductId());
+        int quantity = order.getQuantity();
+        long available;
+        do {
+            available = counter.available.get();
+            if (available < quantity) {
+                rejections.increment();
+                return false;
+            }
+        } while (!counter.available.compareAndSet(available, available - quantity));
+        counter.inFlight.addAndGet(quantity);
+        reservations.increment();
+
+        // replay marker, committed or rolled back together with the order
+        auditLogHandler.saveAuditDetails(List.of(order), RESERVED_ACTION);
+
+        Reservation reservation = new Reservation(order.getId(), order.getProductId(), quantity);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        counter.commit(reservation);
+                    } else {
+                        counter.available.addAndGet(quantity);
+                        counter.inFlight.addAndGet(-quantity);
+                    }
+                }
+            });
+        } else {
+            counter.commit(reservation);
+        }
+        return true;
+    }
+
+    // committed reservations not yet written to the Product row, subtract it from the stored stock
+    public long unflushedQuantity(int productId) {
+        ProductCounter counter = counters.get(productId);
+        long unflushed = counter == null ? 0 : counter.unflushed.get();
+        for (ProductCounter retired : retiredCounters) {
+            if (retired.productId == productId) {
+                unflushed += retired.unflushed.get();
+            }
+        }
+        return unflushed;
+    }
+
+    public long getReservations() {
+        return reservations.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * Drop the counter of a product once the current transaction commits, e.g. after its stock
+     * was overwritten outside the ledger. Pending reservations are flushed first and the next
+     * reservation reloads the stock from the database.
+     */
+    public void invalidateAfterCommit(int productId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(productId);
+                }
+            });
+        } else {
+            invalidate(productId);
+        }
+    }
+
+    private void invalidate(int productId) {
+        synchronized (stripeLock(productId)) {
+            ProductCounter counter = counters.remove(productId);
+            if (counter != null) {
+                // transactions still holding a reservation on it commit later, keep flushing it until then
+                retiredCounters.add(counter);
+                flush(counter);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:500}")
+    public void flush() {
+        counters.values().forEach(this::flushLocked);
+        retiredCounters.forEach(counter -> {
+            flushLocked(counter);
+            if (counter.inFlight.get() == 0 && counter.committed.isEmpty()) {
+                retiredCounters.remove(counter);
+            }
+        });
+    }
+
+    private void flushLocked(ProductCounter counter) {
+        synchronized (stripeLock(counter.productId)) {
+            flush(counter);
+        }
+    }
+
+    private void flush(ProductCounter counter) {
+        List<Reservation> batch = new ArrayList<>();
+        Reservation reservation;
+        while ((reservation = counter.committed.poll()) != null) {
+            batch.add(reservation);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int delta = batch.stream().mapToInt(Reservation::quantity).sum();
+        try {
+            writeDelta(counter.productId, delta, batch);
+            counter.unflushed.addAndGet(-delta);
+        } catch (RuntimeException ex) {
+            // keep them pending, the next flush retries
+            counter.committed.addAll(batch);
+            log.error("Failed to flush {} reserved units of product {}", delta, counter.productId, ex);
+        }
+    }
+
+    // stock decrement and flush markers commit together, so a reservation is applied exactly once
+    private void writeDelta(int productId, int delta, List<Reservation> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE Product SET stockQuantity = stockQuantity - ?, version = version + 1 WHERE id = ?", delta, productId);
+            auditLogHandler.saveAuditDetails(batch.stream().map(Reservation::toOrder).toList(), FLUSHED_ACTION);
+        });
+    }
+
+    /**
+     * Crash recovery : apply every reservation whose order committed but whose flush never did.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, List<Reservation>> unflushed = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT o.id, o.productId, o.quantity FROM AuditLog a JOIN ORDERS o ON o.id = a.orderId " +
+                        "WHERE a.action = ? AND NOT EXISTS " +
+                        "(SELECT 1 FROM AuditLog f WHERE f.orderId = a.orderId AND f.action = ?)",
+                rs -> {
+                    Reservation reservation = new Reservation(rs.getInt(1), rs.getInt(2), rs.getInt(3));
+                    unflushed.computeIfAbsent(reservation.productId(), id -> new ArrayList<>()).add(reservation);
+                },
+                RESERVED_ACTION, FLUSHED_ACTION);
+
+        unflushed.forEach((productId, batch) -> {
+            int delta = batch.stream().mapToInt(Reservation::quantity).sum();
+            writeDelta(productId, delta, batch);
+            log.info("Replayed {} unflushed reservations ({} units) of product {}", batch.size(), delta, productId);
+        });
+    }
+
+    private ProductCounter counterFor(int productId) {
+        ProductCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+        synchronized (stripeLock(productId)) {
+            counter = counters.get(productId);
+            if (counter == null) {
+                Product product = inventoryRepository.findById(productId)
+                        .orElseThrow(() -> new RuntimeException("Product not available with id : " + productId));
+                // a retired counter may still hold reservations the Product row does not reflect yet
+                long retiredQuantity = retiredCounters.stream()
+                        .filter(retired -> retired.productId == productId)
+                        .mapToLong(retired -> retired.unflushed.get() + retired.inFlight.get())
+                        .sum();
+                counter = new ProductCounter(productId, product.getStockQuantity() - retiredQuantity);
+                counters.put(productId, counter);
+            }
+            return counter;
+        }
+    }
+
+    private Object stripeLock(int productId) {
+        return stripeLocks[Math.floorMod(productId, STRIPES)];
+    }
+
+    private static class ProductCounter {
+
+        private final int productId;
+
+        // stock left for new reservations
+        private final AtomicLong available;
+
+        // committed reservations not yet written back to the Product row
+        private final AtomicLong unflushed = new AtomicLong();
+
+        // reserved quantity whose transaction has not completed yet
+        private final AtomicLong inFlight = new AtomicLong();
+
+        private final ConcurrentLinkedQueue<Reservation> committed = new ConcurrentLinkedQueue<>();
+
+        private ProductCounter(int productId, long available) {
+            this.productId = productId;
+            this.available = new AtomicLong(available);
+        }
+
+        private void commit(Reservation reservation) {
+            unflushed.addAndGet(reservation.quantity());
+            committed.add(reservation);
+            inFlight.addAndGet(-reservation.quantity());
+        }
+    }
+
+    private record Reservation(int orderId, int productId, int quantity) {
+
+        private Order toOrder() {
+            return new Order(orderId, productId, quantity, 0);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.Product;
+import com.javatechie.handler.InventoryShardHandler;
+import com.javatechie.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Stock updates with a configurable concurrency strategy ({@code inventory.stock-update.strategy}).
+ * <p>
+ * Each attempt runs in its own transaction. Lock conflicts of any strategy (optimistic version
+ * mismatch, deadlock, lock timeout, serialization failure) are retried up to
+ * {@code inventory.stock-update.max-attempts} times with a short jittered backoff.
+ * Called inside an existing transaction there is only one attempt, the caller owns the retry.
+ */
+@Service
+@Slf4j
+public class StockUpdateService {
+
+    private final InventoryRepository inventoryRepository;
+
+    private final StockReservationLedger stockReservationLedger;
+
+    private final InventoryShardHandler shardHandler;
+
+    private final MeterRegistry meterRegistry;
+
+    private final StockUpdateStrategy defaultStrategy;
+
+    private final int maxAttempts;
+
+    private final long backoffMillis;
+
+    private final Map<StockUpdateStrategy, TransactionTemplate> transactionTemplates = new EnumMap<>(StockUpdateStrategy.class);
+
+    public StockUpdateService(InventoryRepository inventoryRepository,
+                              StockReservationLedger stockReservationLedger,
+                              InventoryShardHandler shardHandler,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${inventory.stock-update.strategy:SERIALIZABLE}") StockUpdateStrategy defaultStrategy,
+                              @Value("${inventory.stock-update.max-attempts:5}") int maxAttempts,
+                              @Value("${inventory.stock-update.backoff-ms:5}") long backoffMillis) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockReservationLedger = stockReservationLedger;
+        this.shardHandler = shardHandler;
+        this.meterRegistry = meterRegistry;
+        this.defaultStrategy = defaultStrategy;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        for (StockUpdateStrategy strategy : StockUpdateStrategy.values()) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setName("StockUpdateService." + strategy.name().toLowerCase());
+            template.setIsolationLevel(strategy == StockUpdateStrategy.SERIALIZABLE
+                    ? TransactionDefinition.ISOLATION_SERIALIZABLE
+                    : TransactionDefinition.ISOLATION_READ_COMMITTED);
+            transactionTemplates.put(strategy, template);
+        }
+    }
+
+    public StockUpdateStrategy getDefaultStrategy() {
+        return defaultStrategy;
+    }
+
+    public int setStock(int productId, int stock) {
+        return setStock(productId, stock, defaultStrategy);
+    }
+
+    public int setStock(int productId, int stock, StockUpdateStrategy strategy) {
+        return update(productId, current -> stock, strategy);
+    }
+
+    /**
+     * Add {@code delta} (negative to take stock away) to the stock of a product.
+     *
+     * @return the new stock
+     */
+    public int adjustStock(int productId, int delta) {
+        return adjustStock(productId, delta, defaultStrategy);
+    }
+
+    public int adjustStock(int productId, int delta, StockUpdateStrategy strategy) {
+        return update(productId, current -> {
+            if (current + delta < 0) {
+                throw new RuntimeException("Insufficient stock !");
+            }
+            return current + delta;
+        }, strategy);
+    }
+
+    private int update(int productId, IntUnaryOperator newStock, StockUpdateStrategy strategy) {
+        if (shardHandler.isSharded(productId)) {
+            // the Product row holds none of its stock
+            throw new IllegalStateException("Product " + productId + " is sharded, unshard it before updating its stock");
+        }
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                int stock = transactionTemplates.get(strategy).execute(status -> {
+                    Product product = load(productId, strategy);
+                    product.setStockQuantity(newStock.applyAsInt(product.getStockQuantity()));
+                    // flush inside the template so a version conflict surfaces here, not at commit
+                    inventoryRepository.saveAndFlush(product);
+                    // stock written outside the ledger, its counter reloads after commit
+                    stockReservationLedger.invalidateAfterCommit(productId);
+                    return product.getStockQuantity();
+                });
+                meterRegistry.counter("stock.update.commits", "strategy", strategy.name()).increment();
+                return stock;
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= attempts) {
+                    meterRegistry.counter("stock.update.failures", "strategy", strategy.name()).increment();
+                    throw ex;
+                }
+                meterRegistry.counter("stock.update.retries", "strategy", strategy.name()).increment();
+                log.debug("Stock update of product {} conflicted ({}), attempt {}", productId, strategy, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private Product load(int productId, StockUpdateStrategy strategy) {
+        return (strategy == StockUpdateStrategy.PESSIMISTIC
+                ? inventoryRepository.findByIdForUpdate(productId)
+                : inventoryRepository.findById(productId))
+                .orElseThrow(() -> new RuntimeException("Product not found"));
+    }
+
+    // up to backoff-ms * attempt, random so conflicting writers do not collide again in step
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a stock update", ex);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.javatechie.service;
+
+/**
+ * How {@link StockUpdateService} protects a read-modify-write of a product's stock.
+ */
+public enum StockUpdateStrategy {
+
+    // SERIALIZABLE isolation, what ProductService uses : range/row locks, deadlocks under load on MySQL
+    SERIALIZABLE,
+
+    // READ_COMMITTED + SELECT ... FOR UPDATE : writers queue on the row lock, readers are not blocked
+    PESSIMISTIC,
+
+    // READ_COMMITTED + @Version check on write : no locks held while reading, conflicts are retried
+    OPTIMISTIC
+}
@@ -0,0 +1,293 @@
+package com.javatechie.service.isolation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a reader/writer mix on the stock of a product under each isolation level and counts
+ * what every level lets through, the data behind the isolation demos of this package.
+ * <p>
+ * Writers overwrite the stock, roll back part of the writes after writing {@value #DIRTY_MARKER},
+ * and insert rows into a scanned range. Readers read the stock and count the range twice per transaction :
+ * <ul>
+ *     <li>dirty read : the rolled back marker was seen</li>
+ *     <li>non-repeatable read : the two stock reads differ</li>
+ *     <li>phantom read : the two counts differ</li>
+ * </ul>
+ * Reads and updates go through plain JDBC, Hibernate's first level cache would hide non-repeatable reads.
+ * Rows are inserted through {@link InventoryRepository} so their ids come from the product sequence.
+ */
+@Component
+@Slf4j
+public class IsolationBenchmark {
+
+    static final int DIRTY_MARKER = -999;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final InventoryRepository inventoryRepository;
+
+    private final PlatformTransactionManager transactionManager;
+
+    private final ThreadFactory workerThreadFactory;
+
+    private final ObjectMapper objectMapper;
+
+    public IsolationBenchmark(JdbcTemplate jdbcTemplate,
+                              InventoryRepository inventoryRepository,
+                              PlatformTransactionManager transactionManager,
+                              ThreadFactory workerThreadFactory,
+                              ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.inventoryRepository = inventoryRepository;
+        this.transactionManager = transactionManager;
+        this.workerThreadFactory = workerThreadFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<IsolationBenchmarkResult> run(IsolationBenchmarkSettings settings) throws InterruptedException {
+        List<IsolationBenchmarkResult> results = new ArrayList<>();
+        for (Isolation isolation : settings.levels()) {
+            IsolationBenchmarkResult result = run(isolation, settings);
+            log.info("Isolation benchmark {}", result);
+            results.add(result);
+        }
+        return results;
+    }
+
+    public void writeJson(List<IsolationBenchmarkResult> results, Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), results);
+    }
+
+    private IsolationBenchmarkResult run(Isolation isolation, IsolationBenchmarkSettings settings) throws InterruptedException {
+        // every level gets fresh rows, so earlier levels leave no locks or phantoms behind
+        String range = "isolation-benchmark-" + UUID.randomUUID();
+        int productId = insertProduct(range, 1000);
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setName("IsolationBenchmark." + isolation.name().toLowerCase());
+        template.setIsolationLevel(isolation.value());
+
+        Stats stats = new Stats();
+        int threads = settings.readers() + settings.writers();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, workerThreadFactory);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                boolean writer = t < settings.writers();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long deadline = System.nanoTime() + settings.durationMillis() * 1_000_000;
+                    Latencies latencies = new Latencies();
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        try {
+                            if (writer) {
+                                write(template, productId, range, settings, stats);
+                            } else {
+                                read(template, productId, range, settings, stats);
+                            }
+                            latencies.add(System.nanoTime() - begin);
+                        } catch (DataAccessException | TransactionException ex) {
+                            stats.failed(ex);
+                        }
+                    }
+                    return latencies.toArray();
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            List<long[]> perThread = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                perThread.add(future.get());
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long[] all = perThread.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new IsolationBenchmarkResult(isolation,
+                    stats.committed.sum(), stats.rolledBack.sum(),
+                    all.length / (elapsedNanos / 1_000_000_000.0),
+                    percentile(all, 0.50), percentile(all, 0.99),
+                    stats.lockTimeouts.sum(), stats.deadlocks.sum(), stats.otherFailures.sum(),
+                    stats.dirtyReads.sum(), stats.nonRepeatableReads.sum(), stats.phantomReads.sum());
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Isolation benchmark worker failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+            jdbcTemplate.update("DELETE FROM Product WHERE name = ?", range);
+        }
+    }
+
+    private void read(TransactionTemplate template, int productId, String range,
+                      IsolationBenchmarkSettings settings, Stats stats) {
+        template.executeWithoutResult(status -> {
+            Integer firstStock = stockOf(productId);
+            long firstCount = countRange(range);
+            pause(settings.readGapMicros());
+            Integer secondStock = stockOf(productId);
+            long secondCount = countRange(range);
+
+            if (isDirty(firstStock) || isDirty(secondStock)) {
+                stats.dirtyReads.increment();
+            }
+            if (!Objects.equals(firstStock, secondStock)) {
+                stats.nonRepeatableReads.increment();
+            }
+            if (firstCount != secondCount) {
+                stats.phantomReads.increment();
+            }
+        });
+        stats.committed.increment();
+    }
+
+    private void write(TransactionTemplate template, int productId, String range,
+                       IsolationBenchmarkSettings settings, Stats stats) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double dice = random.nextDouble();
+        if (dice < settings.insertRatio()) {
+            template.executeWithoutResult(status -> {
+                insertProduct(range, 0);
+                pause(settings.writeHoldMicros());
+            });
+            stats.committed.increment();
+        } else if (dice < settings.insertRatio() + settings.rollbackRatio()) {
+            template.executeWithoutResult(status -> {
+                updateStock(productId, DIRTY_MARKER);
+                pause(settings.writeHoldMicros());
+                status.setRollbackOnly();
+            });
+            stats.rolledBack.increment();
+        } else {
+            template.executeWithoutResult(status -> {
+                updateStock(productId, random.nextInt(1, 1000));
+                pause(settings.writeHoldMicros());
+            });
+            stats.committed.increment();
+        }
+    }
+
+    // null when the row is not visible
+    private Integer stockOf(int productId) {
+        List<Integer> stock = jdbcTemplate.queryForList("SELECT stockQuantity FROM Product WHERE id = ?", Integer.class, productId);
+        return stock.isEmpty() ? null : stock.get(0);
+    }
+
+    // the rolled back marker, or the row missing : H2 shows an uncommitted update that way under READ_UNCOMMITTED
+    private static boolean isDirty(Integer stock) {
+        return stock == null || stock == DIRTY_MARKER;
+    }
+
+    private long countRange(String range) {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM Product WHERE name = ?", Long.class, range));
+    }
+
+    private void updateStock(int productId, int stock) {
+        jdbcTemplate.update("UPDATE Product SET stockQuantity = ?, version = version + 1 WHERE id = ?", stock, productId);
+    }
+
+    // ids from the product sequence, never the id of a real product; flushed so a writer's insert
+    // is in the database while it holds its transaction open. Rows are deleted after each level
+    private int insertProduct(String range, int stock) {
+        return inventoryRepository.saveAndFlush(new Product(0, range, 1.0, stock)).getId();
+    }
+
+    private static void pause(long micros) {
+        if (micros > 0) {
+            LockSupport.parkNanos(micros * 1000);
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static class Stats {
+
+        private final LongAdder committed = new LongAdder();
+        private final LongAdder rolledBack = new LongAdder();
+        private final LongAdder lockTimeouts = new LongAdder();
+        private final LongAdder deadlocks = new LongAdder();
+        private final LongAdder otherFailures = new LongAdder();
+        private final LongAdder dirtyReads = new LongAdder();
+        private final LongAdder nonRepeatableReads = new LongAdder();
+        private final LongAdder phantomReads = new LongAdder();
+
+        // 40001 is the serialization failure / deadlock victim state on MySQL and H2
+        private void failed(RuntimeException ex) {
+            if ("40001".equals(sqlState(ex))) {
+                deadlocks.increment();
+            } else if (ex instanceof CannotAcquireLockException || ex instanceof PessimisticLockingFailureException) {
+                lockTimeouts.increment();
+            } else {
+                otherFailures.increment();
+                log.debug("Isolation benchmark transaction failed", ex);
+            }
+        }
+
+        private static String sqlState(Throwable ex) {
+            for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException sqlException) {
+                    return sqlException.getSQLState();
+                }
+            }
+            return null;
+        }
+    }
+
+    // growable primitive buffer, one per worker thread
+    private static class Latencies {
+
+        private long[] values = new long[1024];
+
+        private int size;
+
+        private void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
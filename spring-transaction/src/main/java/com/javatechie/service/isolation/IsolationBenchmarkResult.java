@@ -0,0 +1,21 @@
+package com.javatechie.service.isolation;
+
+import org.springframework.transaction.annotation.Isolation;
+
+/**
+ * Outcome of one isolation level in an {@link IsolationBenchmark} run.
+ * Latencies cover whole transactions (reads and writes), in milliseconds.
+ */
+public record IsolationBenchmarkResult(Isolation isolation,
+                                       long committed,
+                                       long rolledBack,
+                                       double transactionsPerSecond,
+                                       double p50Millis,
+                                       double p99Millis,
+                                       long lockTimeouts,
+                                       long deadlocks,
+                                       long otherFailures,
+                                       long dirtyReads,
+                                       long nonRepeatableReads,
+                                       long phantomReads) {
+}
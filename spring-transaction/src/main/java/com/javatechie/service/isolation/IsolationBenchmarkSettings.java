@@ -0,0 +1,33 @@
+package com.javatechie.service.isolation;
+
+import org.springframework.transaction.annotation.Isolation;
+
+import java.util.List;
+
+/**
+ * Workload of one {@link IsolationBenchmark} run, executed once per isolation level.
+ *
+ * @param levels            isolation levels to compare
+ * @param readers           threads running read transactions
+ * @param writers           threads running write transactions
+ * @param durationMillis    measured time per level
+ * @param rollbackRatio     share of stock writes that write a marker value and roll back (dirty read probe)
+ * @param insertRatio       share of writes inserting a row into the scanned range (phantom probe)
+ * @param readGapMicros     pause between the two reads of a reader, inside its transaction
+ * @param writeHoldMicros   time a writer keeps its change uncommitted
+ */
+public record IsolationBenchmarkSettings(List<Isolation> levels,
+                                         int readers,
+                                         int writers,
+                                         long durationMillis,
+                                         double rollbackRatio,
+                                         double insertRatio,
+                                         long readGapMicros,
+                                         long writeHoldMicros) {
+
+    public static IsolationBenchmarkSettings defaults() {
+        return new IsolationBenchmarkSettings(
+                List.of(Isolation.READ_UNCOMMITTED, Isolation.READ_COMMITTED, Isolation.REPEATABLE_READ, Isolation.SERIALIZABLE),
+                8, 4, 2000, 0.2, 0.2, 200, 200);
+    }
+}
@@ -4,19 +4,25 @@ import com.javatechie.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ThreadFactory;
+
 @Component
 public class ReadCommittedDemo {
 
     @Autowired
     private ProductService productService;
 
+    // platform or virtual threads, following spring.threads.virtual.enabled
+    @Autowired
+    private ThreadFactory workerThreadFactory;
+
     public void testReadCommitted(int id) throws InterruptedException {
 
         //50-> 5
         // Start Transaction A (Thread 1) to update the stock but not commit, then roll back
-        Thread threadA = new Thread(() -> {
+        Thread threadA = workerThreadFactory.newThread(() -> {
             try {
-                productService.updateStock(id, 5);  // Change stock to 5
+                productService.updateStock(id, 5, true);  // Change stock to 5
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
@@ -24,7 +30,7 @@ public class ReadCommittedDemo {
 
         // Start Transaction B (Thread 2) to read the stock
         //50
-        Thread threadB = new Thread(() -> {
+        Thread threadB = workerThreadFactory.newThread(() -> {
             try {
                 Thread.sleep(2000);  // Wait a moment to ensure Thread A starts and holds the transaction
                 int stock = productService.checkStock(id);  // Read stock during Transaction A
@@ -4,25 +4,31 @@ import com.javatechie.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ThreadFactory;
+
 @Component
 public class RepeatableReadDemo {
 
     @Autowired
     private ProductService productService;
 
+    // platform or virtual threads, following spring.threads.virtual.enabled
+    @Autowired
+    private ThreadFactory workerThreadFactory;
+
     public void demonstrateRepeatableRead(int productId) throws InterruptedException {
 
         // Transaction A: Update stock
-        Thread transactionA = new Thread(() -> {
+        Thread transactionA = workerThreadFactory.newThread(() -> {
             try {
-                productService.updateStock(productId, 5); // Update stock to 5
+                productService.updateStock(productId, 5, true); // Update stock to 5
             } catch (Exception e) {
                 System.out.println("Transaction A: Exception occurred: " + e.getMessage());
             }
         });
 
         // Transaction B: Read stock multiple times
-        Thread transactionB = new Thread(() -> {
+        Thread transactionB = workerThreadFactory.newThread(() -> {
             try {
                 productService.fetchStock(productId); // Read stock before and after Transaction A's update
             } catch (Exception e) {
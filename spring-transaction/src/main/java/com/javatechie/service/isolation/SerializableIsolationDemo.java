@@ -4,22 +4,28 @@ import com.javatechie.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ThreadFactory;
+
 @Component
 public class SerializableIsolationDemo {
 
     @Autowired
     private ProductService productService;
 
+    // platform or virtual threads, following spring.threads.virtual.enabled
+    @Autowired
+    private ThreadFactory workerThreadFactory;
+
     public void testSerializableIsolation(int productId) throws InterruptedException {
-        Thread transactionA = new Thread(() -> {
+        Thread transactionA = workerThreadFactory.newThread(() -> {
             try {
-                productService.updateStock(productId, 5); // Update stock to 5
+                productService.updateStock(productId, 5, true); // Update stock to 5
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
         });
 
-        Thread transactionB = new Thread(() -> {
+        Thread transactionB = workerThreadFactory.newThread(() -> {
             try {
                 Thread.sleep(1000); // Ensure Transaction A starts first
                 int stock = productService.checkStock(productId); // Attempt to read stock
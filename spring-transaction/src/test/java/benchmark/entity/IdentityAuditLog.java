@@ -0,0 +1,28 @@
+package benchmark.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// AuditLog as it was mapped before, with IDENTITY ids, only used to compare insert strategies.
+// Outside com.javatechie so only AuditLogIdGenerationBenchmarkTest maps it
+@Entity
+@Data
+@NoArgsConstructor
+public class IdentityAuditLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long orderId;
+
+    private String action;
+
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,26 @@
+package com.javatechie;
+
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+
+/**
+ * Products shared by the tests.
+ */
+public final class ProductFixtures {
+
+    public static final double PRICE = 100.0;
+
+    private ProductFixtures() {
+    }
+
+    /**
+     * @return the id of a new product priced {@link #PRICE}
+     */
+    public static int newProduct(InventoryRepository inventoryRepository, int stock) {
+        return inventoryRepository.save(new Product(0, "Laptop", PRICE, stock)).getId();
+    }
+
+    public static int stockOf(InventoryRepository inventoryRepository, int productId) {
+        return inventoryRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+}
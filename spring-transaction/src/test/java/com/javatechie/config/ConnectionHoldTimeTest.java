@@ -0,0 +1,50 @@
+package com.javatechie.config;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "latency.injection.enabled=true",
+        "latency.injection.product-service.update-stock=300ms"
+})
+class ConnectionHoldTimeTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void holdTimeIsRecordedPerTransactionalMethod() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 50);
+
+        productService.updateStock(productId, 5, false);
+
+        Timer updateStock = meterRegistry.find("db.connection.hold").tag("method", "ProductService.updateStock").timer();
+        assertNotNull(updateStock);
+        assertEquals(1, updateStock.count());
+        // the injected latency is spent while the transaction holds its connection
+        assertTrue(updateStock.max(TimeUnit.MILLISECONDS) >= 300);
+        assertEquals(5, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+}
@@ -0,0 +1,43 @@
+package com.javatechie.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyInjectorTest {
+
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("latency.injection.slow-point", "200ms");
+
+    @Test
+    void disabledInjectorNeverWaits() throws Exception {
+        LatencyInjector injector = new LatencyInjector(false, environment);
+
+        long start = System.nanoTime();
+        injector.inject("slow-point");
+
+        assertTrue(System.nanoTime() - start < 100_000_000);
+    }
+
+    @Test
+    void forcedInjectionWaitsWhenDisabled() throws Exception {
+        LatencyInjector injector = new LatencyInjector(false, environment);
+
+        long start = System.nanoTime();
+        injector.inject("slow-point", true);
+
+        assertTrue(System.nanoTime() - start >= 200_000_000);
+    }
+
+    @Test
+    void enabledInjectorWaitsTheConfiguredDelay() throws Exception {
+        LatencyInjector injector = new LatencyInjector(true, environment);
+
+        long start = System.nanoTime();
+        injector.inject("slow-point");
+        injector.inject("unknown-point");
+
+        assertTrue(System.nanoTime() - start >= 200_000_000);
+    }
+}
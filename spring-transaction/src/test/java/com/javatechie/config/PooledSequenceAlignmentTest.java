@@ -0,0 +1,41 @@
+package com.javatechie.config;
+
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// own context, the product generator must not hold a block of ids yet
+@SpringBootTest(properties = "spring.jpa.properties.app.id.allocation-size=10")
+@ActiveProfiles("test")
+class PooledSequenceAlignmentTest {
+
+    @Autowired
+    private PooledSequenceAlignment alignment;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Test
+    void idsStartPastRowsInsertedWithExplicitIds() {
+        // seeded by hand, or by AUTO_INCREMENT before the sequence existed
+        jdbcTemplate.update("INSERT INTO Product (id, name, price, stockQuantity, version) VALUES (5000, 'Laptop', 25000.0, 10, 0)");
+
+        alignment.align();
+        alignment.align();
+
+        int first = inventoryRepository.save(new Product(0, "Tablet", 300.0, 5)).getId();
+        int second = inventoryRepository.save(new Product(0, "Tablet", 300.0, 5)).getId();
+        assertTrue(first > 5000, "id " + first);
+        assertEquals(first + 1, second);
+    }
+}
@@ -0,0 +1,159 @@
+package com.javatechie.config;
+
+import com.javatechie.entity.Product;
+import com.javatechie.handler.InventoryHandler;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two H2 databases, the "replica" is filled by hand : its copy of a product deliberately
+ * has another stock than the primary, so every read shows where it was routed.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "datasource.routing.enabled=true",
+        "datasource.routing.max-lag=1s",
+        // probed by the tests themselves
+        "datasource.routing.probe-interval-ms=3600000",
+        "spring.datasource.replica.jdbc-url=jdbc:h2:mem:replica-${random.uuid};MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.maximum-pool-size=5"
+})
+class ReplicaRoutingTest {
+
+    private static final int PRIMARY_STOCK = 10;
+    private static final int REPLICA_STOCK = 7;
+
+    @Autowired
+    private InventoryHandler inventoryHandler;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void createReplicaSchema() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE IF NOT EXISTS Product (id INT PRIMARY KEY, name VARCHAR(255), price DOUBLE, " +
+                "stockQuantity INT, version BIGINT, shardCount INT DEFAULT 0 NOT NULL)");
+        replica.execute("CREATE TABLE IF NOT EXISTS ReplicaHeartbeat (id INT PRIMARY KEY, beatAt BIGINT)");
+    }
+
+    @Test
+    void readsGoToTheReplicaWritesToThePrimary() {
+        int productId = productOnBothSides();
+        replicateHeartbeat(System.currentTimeMillis());
+        replicaLagMonitor.probe();
+
+        assertEquals(REPLICA_STOCK, inventoryHandler.getProduct(productId).getStockQuantity());
+        assertEquals(REPLICA_STOCK, stockWith(TransactionDefinition.PROPAGATION_NOT_SUPPORTED, productId));
+        assertEquals(REPLICA_STOCK, stockWith(TransactionDefinition.PROPAGATION_SUPPORTS, productId));
+
+        // read-write transactions, getProduct joining one and the isolation demo's Transaction B stay on the primary
+        assertEquals(PRIMARY_STOCK, productService.checkStock(productId));
+        assertEquals(PRIMARY_STOCK, stockWith(TransactionDefinition.PROPAGATION_REQUIRED, productId));
+        int joined = new TransactionTemplate(transactionManager).execute(status ->
+                inventoryHandler.getProduct(productId).getStockQuantity());
+        assertEquals(PRIMARY_STOCK, joined);
+        // no transaction scope at all
+        assertEquals(PRIMARY_STOCK, stockOf(jdbcTemplate, productId));
+    }
+
+    @Test
+    void productDetailsCacheMissesReadTheReplica() {
+        int productId = productOnBothSides();
+        replica.update("UPDATE Product SET price = ? WHERE id = ?", 90.0, productId);
+        replicateHeartbeat(System.currentTimeMillis());
+        replicaLagMonitor.probe();
+
+        assertEquals(90.0, inventoryHandler.getProductDetails(productId).price());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        int productId = productOnBothSides();
+        replicateHeartbeat(System.currentTimeMillis() - 60_000);
+        replicaLagMonitor.probe();
+        double fallbacks = meterRegistry.get("datasource.routing.reads").tag("target", "primary").functionCounter().count();
+
+        assertTrue(replicaLagMonitor.getLagMillis() >= 60_000);
+        assertEquals(PRIMARY_STOCK, inventoryHandler.getProduct(productId).getStockQuantity());
+        assertEquals(PRIMARY_STOCK, productService.checkStock(productId));
+        assertTrue(meterRegistry.get("datasource.routing.reads").tag("target", "primary").functionCounter().count() > fallbacks);
+
+        // caught up
+        replicateHeartbeat(System.currentTimeMillis());
+        replicaLagMonitor.probe();
+        assertEquals(REPLICA_STOCK, inventoryHandler.getProduct(productId).getStockQuantity());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        int productId = productOnBothSides();
+        replica.execute("DROP TABLE ReplicaHeartbeat");
+        replicaLagMonitor.probe();
+
+        assertFalse(Double.isFinite(replicaLagMonitor.getLagMillis()));
+        assertEquals(PRIMARY_STOCK, inventoryHandler.getProduct(productId).getStockQuantity());
+    }
+
+    private int productOnBothSides() {
+        Product product = inventoryRepository.save(new Product(0, "Laptop", 100.0, PRIMARY_STOCK));
+        replica.update("INSERT INTO Product (id, name, price, stockQuantity, version) VALUES (?, ?, ?, ?, ?)",
+                product.getId(), product.getName(), product.getPrice(), REPLICA_STOCK, product.getVersion());
+        return product.getId();
+    }
+
+    private void replicateHeartbeat(long beatAt) {
+        replica.update("MERGE INTO ReplicaHeartbeat (id, beatAt) KEY (id) VALUES (1, ?)", beatAt);
+    }
+
+    private int stockWith(int propagation, int productId) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(propagation);
+        return template.execute(status -> stockOf(jdbcTemplate, productId));
+    }
+
+    private static int stockOf(JdbcTemplate jdbcTemplate, int productId) {
+        return jdbcTemplate.queryForObject("SELECT stockQuantity FROM Product WHERE id = ?", Integer.class, productId);
+    }
+}
@@ -0,0 +1,108 @@
+package com.javatechie.config;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.dto.TransactionStats;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.InventoryHandler;
+import com.javatechie.handler.PaymentValidatorHandler;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.service.OrderProcessingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.ResourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionMetricsTest {
+
+    @Autowired
+    private TransactionMetrics transactionMetrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private InventoryHandler inventoryHandler;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private PaymentValidatorHandler paymentValidatorHandler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void transactionManagerIsInstrumented() {
+        assertInstanceOf(InstrumentedTransactionManager.class, transactionManager);
+    }
+
+    @Test
+    void instrumentedManagerExposesTheResourceFactory() {
+        ResourceTransactionManager resourceTransactionManager = assertInstanceOf(ResourceTransactionManager.class, transactionManager);
+        assertSame(entityManagerFactory, resourceTransactionManager.getResourceFactory());
+    }
+
+    @Test
+    void physicalAndJoinedTransactionsAreCountedPerMethod() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        TransactionStats before = stats("InventoryHandler.reserveStock", "REQUIRED");
+
+        inventoryHandler.reserveStock(productId, 1);
+
+        TransactionStats after = stats("InventoryHandler.reserveStock", "REQUIRED");
+        assertEquals(before.physical() + 1, after.physical());
+        assertEquals(before.commits() + 1, after.commits());
+        assertTrue(after.avgAcquireMillis() >= 0);
+    }
+
+    @Test
+    void failedOrderIsCountedAsRollback() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 1);
+        TransactionStats before = stats("OrderProcessingService.placeAnOrder", "REQUIRED");
+
+        assertThrows(RuntimeException.class,
+                () -> orderProcessingService.placeAnOrder(new Order(7001, productId, 5, 0)));
+
+        TransactionStats after = stats("OrderProcessingService.placeAnOrder", "REQUIRED");
+        assertEquals(before.rollbacks() + 1, after.rollbacks());
+    }
+
+    @Test
+    void nestedPaymentValidationShowsBeginFailure() {
+        TransactionStats before = stats("PaymentValidatorHandler.validatePayment", "NESTED");
+
+        // the JPA transaction manager cannot open the savepoint of validatePayment
+        assertThrows(RuntimeException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                paymentValidatorHandler.validatePayment(new Order(7002, 1, 1, 100))));
+
+        TransactionStats after = stats("PaymentValidatorHandler.validatePayment", "NESTED");
+        assertEquals(before.beginFailures() + 1, after.beginFailures());
+        assertEquals(0, after.savepoints());
+    }
+
+    private TransactionStats stats(String method, String propagation) {
+        return transactionMetrics.snapshot().stream()
+                .filter(s -> s.method().equals(method) && s.propagation().equals(propagation))
+                .findFirst()
+                .orElse(new TransactionStats(method, propagation, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0));
+    }
+}
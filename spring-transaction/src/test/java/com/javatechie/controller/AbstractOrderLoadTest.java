@@ -0,0 +1,59 @@
+package com.javatechie.controller;
+
+import com.javatechie.entity.Product;
+import com.javatechie.load.OrderLoad;
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import static com.javatechie.load.OrderLoad.PRICE;
+import static com.javatechie.load.OrderLoad.PRODUCTS;
+import static com.javatechie.load.OrderLoad.STOCK_PER_PRODUCT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Blocking JDBC load against the order endpoint, run once per thread model by the subclasses :
+ * {@code mvn test -Dbenchmark=true -Dtest=*ThreadOrderLoadTest}
+ * <p>
+ * The load itself is {@link OrderLoad}, shared with spring-transaction-reactive's {@code ReactiveOrderLoadTest}.
+ * Subclasses carry the {@code benchmark} gate, condition annotations are not inherited.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+abstract class AbstractOrderLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    abstract String threadModel();
+
+    @Test
+    void placeOrdersUnderLoad() throws Exception {
+        OrderLoad load = new OrderLoad(port);
+        load.warmUp(newProducts(Integer.MAX_VALUE));
+        int[] productIds = newProducts(STOCK_PER_PRODUCT);
+
+        OrderLoad.Result result = load.run(threadModel() + " threads", productIds);
+
+        // throughput and latency depend on the machine, they are only reported.
+        // Every unit is sold exactly once : no oversold product, no lost update
+        assertEquals(PRODUCTS * STOCK_PER_PRODUCT, result.succeeded());
+        for (int productId : productIds) {
+            assertEquals(0, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+        }
+    }
+
+    private int[] newProducts(int stock) {
+        int[] productIds = new int[PRODUCTS];
+        for (int p = 0; p < PRODUCTS; p++) {
+            productIds[p] = inventoryRepository.save(new Product(0, "Mouse", PRICE, stock)).getId();
+        }
+        return productIds;
+    }
+}
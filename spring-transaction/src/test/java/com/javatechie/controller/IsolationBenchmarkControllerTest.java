@@ -0,0 +1,63 @@
+package com.javatechie.controller;
+
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "isolation.benchmark.enabled=true",
+        "isolation.benchmark.max-threads=4",
+        "isolation.benchmark.max-duration-ms=500"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IsolationBenchmarkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Test
+    void runsEveryLevelAndCleansUp() throws Exception {
+        long products = inventoryRepository.count();
+
+        mockMvc.perform(post("/api/orders/isolation/benchmark")
+                        .param("readers", "2")
+                        .param("writers", "2")
+                        .param("durationMs", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[3].isolation").value("SERIALIZABLE"));
+
+        assertEquals(products, inventoryRepository.count());
+    }
+
+    @Test
+    void rejectsRunsAboveTheCaps() throws Exception {
+        mockMvc.perform(post("/api/orders/isolation/benchmark").param("readers", "4").param("writers", "1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/orders/isolation/benchmark").param("readers", "1").param("writers", "1")
+                        .param("durationMs", "501"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/orders/isolation/benchmark").param("readers", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void onlyAcceptsPost() throws Exception {
+        mockMvc.perform(get("/api/orders/isolation/benchmark"))
+                .andExpect(status().isMethodNotAllowed());
+    }
+}
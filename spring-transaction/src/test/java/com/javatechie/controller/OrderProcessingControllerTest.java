@@ -0,0 +1,164 @@
+package com.javatechie.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Order;
+import com.javatechie.repository.AuditLogRepository;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.OrderRepository;
+import com.javatechie.service.StockUpdateStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OrderProcessingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void batchPlacesEveryOrder() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        mockMvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new Order(9401, productId, 2, 0),
+                                new Order(9402, productId, 3, 0)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].orderId").value(9401))
+                .andExpect(jsonPath("$[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$[0].order.totalPrice").value(200.0))
+                .andExpect(jsonPath("$[1].orderId").value(9402))
+                .andExpect(jsonPath("$[1].status").value("SUCCESS"));
+
+        assertTrue(orderRepository.existsById(9401));
+        assertTrue(orderRepository.existsById(9402));
+        assertEquals(5, ProductFixtures.stockOf(inventoryRepository, productId));
+        awaitAudit(9401, "order placement succeeded");
+        awaitAudit(9402, "order placement succeeded");
+    }
+
+    @Test
+    void batchReportsAndAuditsFailedOrders() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 5);
+
+        mockMvc.perform(post("/api/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                new Order(9403, productId, 4, 0),
+                                // more than what is left after 9403
+                                new Order(9404, productId, 2, 0),
+                                // rejected with its price lookup, before the batch transaction
+                                new Order(9405, Integer.MAX_VALUE, 1, 0),
+                                // same id twice in one batch
+                                new Order(9403, productId, 1, 0)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("SUCCESS"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].message").value("Insufficient stock !"))
+                .andExpect(jsonPath("$[2].status").value("FAILED"))
+                .andExpect(jsonPath("$[2].message").value("Product not available with id : " + Integer.MAX_VALUE))
+                .andExpect(jsonPath("$[3].status").value("FAILED"))
+                .andExpect(jsonPath("$[3].message").value("Order already exists with id : 9403"));
+
+        assertTrue(orderRepository.existsById(9403));
+        assertFalse(orderRepository.existsById(9404));
+        assertFalse(orderRepository.existsById(9405));
+        assertEquals(1, ProductFixtures.stockOf(inventoryRepository, productId));
+        awaitAudit(9403, "order placement succeeded");
+        awaitAudit(9404, "order placement failed");
+        // the duplicate of 9403
+        awaitAudit(9403, "order placement failed");
+    }
+
+    @Test
+    void stockUpdateUsesTheConfiguredStrategy() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        double optimistic = stockUpdateCommits(StockUpdateStrategy.OPTIMISTIC);
+        double pessimistic = stockUpdateCommits(StockUpdateStrategy.PESSIMISTIC);
+
+        // inventory.stock-update.strategy=OPTIMISTIC
+        mockMvc.perform(put("/api/orders/products/{productId}/stock", productId).param("stock", "42"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("42"));
+        assertEquals(optimistic + 1, stockUpdateCommits(StockUpdateStrategy.OPTIMISTIC));
+
+        mockMvc.perform(put("/api/orders/products/{productId}/stock", productId)
+                        .param("stock", "17")
+                        .param("strategy", "PESSIMISTIC"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("17"));
+        assertEquals(pessimistic + 1, stockUpdateCommits(StockUpdateStrategy.PESSIMISTIC));
+        assertEquals(17, ProductFixtures.stockOf(inventoryRepository, productId));
+    }
+
+    @Test
+    void reusedIdempotencyKeyIsUnprocessable() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "checkout-9406")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Order(9406, productId, 1, 0))))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/orders")
+                        .header("Idempotency-Key", "checkout-9406")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Order(9406, productId, 4, 0))))
+                .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(9, ProductFixtures.stockOf(inventoryRepository, productId));
+    }
+
+    @Test
+    void isolationBenchmarkIsOffByDefault() throws Exception {
+        mockMvc.perform(post("/api/orders/isolation/benchmark"))
+                .andExpect(status().isNotFound());
+    }
+
+    private double stockUpdateCommits(StockUpdateStrategy strategy) {
+        return meterRegistry.counter("stock.update.commits", "strategy", strategy.name()).count();
+    }
+
+    private void awaitAudit(int orderId, String action) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> auditLogRepository.findAll().stream()
+                .anyMatch(log -> log.getOrderId() == orderId && action.equals(log.getAction())));
+    }
+}
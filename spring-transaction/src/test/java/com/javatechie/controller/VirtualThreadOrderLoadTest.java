@@ -0,0 +1,14 @@
+package com.javatechie.controller;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.context.TestPropertySource;
+
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadOrderLoadTest extends AbstractOrderLoadTest {
+
+    @Override
+    String threadModel() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,93 @@
+package com.javatechie.entity;
+
+import benchmark.entity.IdentityAuditLog;
+import com.javatechie.SpringTransactionExampleApplication;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.function.IntFunction;
+
+/**
+ * Inserts 100k audit rows with IDENTITY ids and with the pooled sequence generator.
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=AuditLogIdGenerationBenchmarkTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AuditLogIdGenerationBenchmarkTest {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int ROWS_PER_TRANSACTION = 1_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // the application entities plus IdentityAuditLog, which no other context maps
+    @TestConfiguration
+    static class IdentityAuditLogConfig {
+
+        @Bean
+        PersistenceManagedTypes persistenceManagedTypes(ResourceLoader resourceLoader) {
+            return new PersistenceManagedTypesScanner(resourceLoader).scan(
+                    SpringTransactionExampleApplication.class.getPackageName(), IdentityAuditLog.class.getPackageName());
+        }
+    }
+
+    @Test
+    void compareIdentityWithPooledSequence() {
+        // warm up
+        insert(AuditLogIdGenerationBenchmarkTest::identityRow, ROWS_PER_TRANSACTION);
+        insert(AuditLogIdGenerationBenchmarkTest::pooledRow, ROWS_PER_TRANSACTION);
+
+        long identityMillis = insert(AuditLogIdGenerationBenchmarkTest::identityRow, ROWS);
+        long pooledMillis = insert(AuditLogIdGenerationBenchmarkTest::pooledRow, ROWS);
+
+        System.out.printf("IDENTITY        : %d rows in %d ms (%.0f rows/sec)%n", ROWS, identityMillis, ROWS * 1000.0 / identityMillis);
+        System.out.printf("pooled sequence : %d rows in %d ms (%.0f rows/sec)%n", ROWS, pooledMillis, ROWS * 1000.0 / pooledMillis);
+    }
+
+    private long insert(IntFunction<Object> row, int rows) {
+        long start = System.nanoTime();
+        for (int from = 0; from < rows; from += ROWS_PER_TRANSACTION) {
+            int first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < Math.min(first + ROWS_PER_TRANSACTION, rows); i++) {
+                    entityManager.persist(row.apply(i));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static Object identityRow(int i) {
+        IdentityAuditLog auditLog = new IdentityAuditLog();
+        auditLog.setOrderId((long) i);
+        auditLog.setAction("order placement succeeded");
+        auditLog.setTimestamp(LocalDateTime.now());
+        return auditLog;
+    }
+
+    private static Object pooledRow(int i) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setOrderId((long) i);
+        auditLog.setAction("order placement succeeded");
+        auditLog.setTimestamp(LocalDateTime.now());
+        return auditLog;
+    }
+}
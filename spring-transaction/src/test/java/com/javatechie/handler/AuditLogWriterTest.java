@@ -0,0 +1,168 @@
+package com.javatechie.handler;
+
+import com.javatechie.entity.AuditLog;
+import com.javatechie.repository.AuditLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// writer against a mocked repository, the transactions are mocked too
+class AuditLogWriterTest {
+
+    private static final String WRITER_THREAD = "audit-log-writer";
+
+    private final AuditLogRepository repository = mock(AuditLogRepository.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // rows saved, with the thread that saved them
+    private final List<String> saved = Collections.synchronizedList(new ArrayList<>());
+
+    // holds the writer thread inside saveAll until released
+    private final CountDownLatch writerBlocked = new CountDownLatch(1);
+
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        releaseWriter.countDown();
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void fullQueueMakesTheCallerWriteItsRow() {
+        blockWriterThread();
+        writer = start(2);
+
+        writer.submit(auditLog(1));
+        await().atMost(Duration.ofSeconds(5)).until(() -> writerBlocked.getCount() == 0);
+        // the writer holds row 1, the queue takes two more
+        writer.submit(auditLog(2));
+        writer.submit(auditLog(3));
+        writer.submit(auditLog(4));
+
+        assertEquals(List.of("4@main"), List.copyOf(saved));
+        assertEquals(1, meterRegistry.get("audit.writer.overflow").counter().count());
+        assertEquals(2, meterRegistry.get("audit.writer.queue.size").gauge().value());
+
+        releaseWriter.countDown();
+        await().atMost(Duration.ofSeconds(5)).until(() -> saved.size() == 4);
+        assertEquals(4, meterRegistry.get("audit.writer.written").counter().count());
+    }
+
+    @Test
+    void failedBatchIsWrittenRowByRowAndOnlyTheBadRowIsLost() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<AuditLog> batch = invocation.getArgument(0);
+            if (batch.size() > 1 || batch.get(0).getOrderId() == 13) {
+                throw new IllegalStateException("constraint violated");
+            }
+            return save(batch);
+        });
+        writer = start(100);
+
+        writer.submitAll(List.of(auditLog(11), auditLog(12), auditLog(13), auditLog(14)));
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.get("audit.writer.failed").counter().count() == 1);
+        assertEquals(List.of(11, 12, 14), savedOrderIds());
+    }
+
+    @Test
+    void transientFailureIsRetried() {
+        int[] calls = {0};
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (calls[0]++ < 2) {
+                throw new IllegalStateException("connection reset");
+            }
+            return save(invocation.getArgument(0));
+        });
+        writer = start(100);
+
+        writer.submit(auditLog(21));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> saved.size() == 1);
+        assertEquals(0, meterRegistry.get("audit.writer.failed").counter().count());
+    }
+
+    @Test
+    void queuedRowsAreWrittenOnShutdown() throws Exception {
+        blockWriterThread();
+        writer = start(100);
+        writer.submit(auditLog(31));
+        await().atMost(Duration.ofSeconds(5)).until(() -> writerBlocked.getCount() == 0);
+        for (int orderId = 32; orderId <= 40; orderId++) {
+            writer.submit(auditLog(orderId));
+        }
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(() -> {
+            try {
+                writer.shutdown();
+            } catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        releaseWriter.countDown();
+        shutdown.get(10, TimeUnit.SECONDS);
+        writer = null;
+
+        assertEquals(10, saved.size());
+        assertEquals(0, meterRegistry.get("audit.writer.queue.size").gauge().value());
+        assertEquals(0, meterRegistry.get("audit.writer.overflow").counter().count());
+    }
+
+    private void blockWriterThread() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals(WRITER_THREAD)) {
+                writerBlocked.countDown();
+                assertTrue(releaseWriter.await(10, TimeUnit.SECONDS));
+            }
+            return save(invocation.getArgument(0));
+        });
+    }
+
+    private List<AuditLog> save(List<AuditLog> batch) {
+        String thread = Thread.currentThread().getName().equals(WRITER_THREAD) ? "writer" : "main";
+        batch.forEach(auditLog -> saved.add(auditLog.getOrderId() + "@" + thread));
+        return batch;
+    }
+
+    private List<Integer> savedOrderIds() {
+        return saved.stream().map(row -> Integer.parseInt(row.substring(0, row.indexOf('@')))).sorted().toList();
+    }
+
+    private AuditLogWriter start(int queueCapacity) {
+        AuditLogWriter auditLogWriter = new AuditLogWriter(repository, mock(PlatformTransactionManager.class),
+                meterRegistry, Thread::new, queueCapacity, 100, 20, 10, 3, 1);
+        auditLogWriter.start();
+        return auditLogWriter;
+    }
+
+    private static AuditLog auditLog(int orderId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setOrderId((long) orderId);
+        auditLog.setAction("order placement succeeded");
+        return auditLog;
+    }
+}
@@ -0,0 +1,96 @@
+package com.javatechie.handler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the co-purchase counter : rebuild for 1M orders and lookup in the snapshot.
+ * Run through {@link CoPurchaseBenchmarkTest}.
+ * <p>
+ * Orders are generated in memory, the database read of {@code loadFromOrders} is not part of it.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CoPurchaseBenchmark {
+
+    static final int ORDERS = 1_000_000;
+    static final int CUSTOMERS = 100_000;
+    static final int PRODUCTS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Orders {
+
+        int[] customers;
+
+        int[] products;
+
+        @Setup(Level.Trial)
+        public void generate() {
+            SplittableRandom random = new SplittableRandom(42);
+            customers = new int[ORDERS];
+            products = new int[ORDERS];
+            for (int i = 0; i < ORDERS; i++) {
+                customers[i] = random.nextInt(CUSTOMERS);
+                // skewed towards popular products, like a real catalogue
+                products[i] = (int) (PRODUCTS * Math.pow(random.nextDouble(), 3));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lookups {
+
+        CoPurchaseSnapshot snapshot;
+
+        // random product ids, read in turn so the random generator is not measured
+        int[] productIds;
+
+        int next;
+
+        @Setup(Level.Trial)
+        public void build(Orders orders) {
+            snapshot = rebuild(orders);
+            SplittableRandom random = new SplittableRandom(7);
+            productIds = new int[1 << 16];
+            for (int i = 0; i < productIds.length; i++) {
+                productIds[i] = random.nextInt(PRODUCTS);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CoPurchaseSnapshot rebuildFromOneMillionOrders(Orders orders) {
+        return rebuild(orders);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int[] lookup(Lookups lookups) {
+        int productId = lookups.productIds[lookups.next++ & (lookups.productIds.length - 1)];
+        return lookups.snapshot.recommendations(productId);
+    }
+
+    private static CoPurchaseSnapshot rebuild(Orders orders) {
+        CoPurchaseCounter counter = new CoPurchaseCounter(20, CUSTOMERS);
+        for (int i = 0; i < ORDERS; i++) {
+            counter.record(orders.customers[i], orders.products[i]);
+        }
+        return counter.snapshot(10);
+    }
+}
@@ -0,0 +1,30 @@
+package com.javatechie.handler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs {@link CoPurchaseBenchmark} with JMH (forked JVM, warmup and measurement iterations) :
+ * {@code mvn test -Dbenchmark=true -Dtest=CoPurchaseBenchmarkTest}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CoPurchaseBenchmarkTest {
+
+    @Test
+    void rebuildAndLookup() throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(CoPurchaseBenchmark.class.getName())
+                .build())
+                .run();
+
+        assertEquals(2, results.size());
+    }
+}
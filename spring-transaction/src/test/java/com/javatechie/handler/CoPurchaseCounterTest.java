@@ -0,0 +1,72 @@
+package com.javatechie.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoPurchaseCounterTest {
+
+    @Test
+    void productsBoughtByTheSameCustomerAreRecommendedByCount() {
+        CoPurchaseCounter counter = new CoPurchaseCounter(20, 1000);
+        // laptop (1) is bought with a mouse (2) by three customers, with a bag (3) by one
+        for (int customer = 1; customer <= 3; customer++) {
+            counter.record(customer, 1);
+            counter.record(customer, 2);
+        }
+        counter.record(4, 3);
+        counter.record(4, 1);
+        // same product again does not count twice
+        counter.record(4, 3);
+
+        CoPurchaseSnapshot snapshot = counter.snapshot(10);
+
+        assertArrayEquals(new int[]{2, 3}, snapshot.recommendations(1));
+        assertArrayEquals(new int[]{1}, snapshot.recommendations(2));
+        assertArrayEquals(new int[0], snapshot.recommendations(99));
+    }
+
+    @Test
+    void onlyTopKPartnersAreKept() {
+        CoPurchaseCounter counter = new CoPurchaseCounter(20, 1000);
+        int customer = 0;
+        // partner p is bought together with product 1 by p customers
+        for (int partner = 2; partner <= 8; partner++) {
+            for (int i = 0; i < partner; i++) {
+                counter.record(++customer, 1);
+                counter.record(customer, partner);
+            }
+        }
+
+        assertArrayEquals(new int[]{8, 7, 6}, counter.snapshot(3).recommendations(1));
+    }
+
+    @Test
+    void basketWindowLimitsPairs() {
+        CoPurchaseCounter counter = new CoPurchaseCounter(2, 1000);
+        counter.record(1, 1);
+        counter.record(1, 2);
+        counter.record(1, 3);
+        // product 1 left the window before 4 was ordered
+        counter.record(1, 4);
+
+        assertArrayEquals(new int[]{2, 3}, counter.snapshot(10).recommendations(1));
+    }
+
+    @Test
+    void snapshotFindsEveryKey() {
+        Map<Integer, int[]> table = new HashMap<>();
+        for (int id = -500; id < 5000; id += 3) {
+            table.put(id, new int[]{id + 1});
+        }
+        CoPurchaseSnapshot snapshot = new CoPurchaseSnapshot(table);
+
+        assertEquals(table.size(), snapshot.size());
+        table.forEach((id, ids) -> assertArrayEquals(ids, snapshot.recommendations(id)));
+        assertArrayEquals(new int[0], snapshot.recommendations(2));
+    }
+}
@@ -0,0 +1,134 @@
+package com.javatechie.handler;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryHandlerTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryHandlerTest.class);
+
+    private static final int STOCK = 200;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    @Autowired
+    private InventoryHandler inventoryHandler;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void reserveStockNeverOversells() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, STOCK);
+
+        Run run = hammer(productId, id -> inventoryHandler.reserveStock(id, 1));
+
+        assertEquals(STOCK, run.reserved);
+        assertEquals(0, run.errors);
+        assertEquals(0, ProductFixtures.stockOf(inventoryRepository, productId));
+    }
+
+    @Test
+    void reserveStockComparedWithReadModifyWrite() throws Exception {
+        // warm up both paths so the comparison is not dominated by class loading / JIT
+        hammer(ProductFixtures.newProduct(inventoryRepository, STOCK), id -> inventoryHandler.reserveStock(id, 1));
+        hammer(ProductFixtures.newProduct(inventoryRepository, STOCK), this::readModifyWrite);
+
+        int atomicProduct = ProductFixtures.newProduct(inventoryRepository, STOCK);
+        Run atomic = hammer(atomicProduct, id -> inventoryHandler.reserveStock(id, 1));
+
+        int legacyProduct = ProductFixtures.newProduct(inventoryRepository, STOCK);
+        Run legacy = hammer(legacyProduct, this::readModifyWrite);
+
+        // read-modify-write loses updates : more orders succeed than stock actually left the table
+        int legacyOversold = legacy.reserved - (STOCK - ProductFixtures.stockOf(inventoryRepository, legacyProduct));
+        log.info("atomic reserve : {} reserved, {} ops/sec", atomic.reserved, Math.round(atomic.opsPerSecond()));
+        log.info("read-modify-write : {} reserved, {} oversold, {} ops/sec ({} failed with lock errors)",
+                legacy.reserved, legacyOversold, Math.round(legacy.opsPerSecond()), legacy.errors);
+
+        // every unit of stock is sold exactly once and every attempt beyond it is refused, not failed
+        assertEquals(STOCK, atomic.reserved);
+        assertEquals(0, atomic.errors);
+        assertEquals(STOCK - atomic.reserved, ProductFixtures.stockOf(inventoryRepository, atomicProduct));
+        // lost updates can only oversell : never more stock left the table than orders succeeded
+        assertTrue(ProductFixtures.stockOf(inventoryRepository, legacyProduct) >= 0);
+        assertTrue(legacyOversold >= 0);
+        // throughput depends on the machine and is only logged
+    }
+
+    // the path OrderProcessingService used before : read the product, subtract in java, save the entity
+    private boolean readModifyWrite(int productId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Product product = inventoryHandler.getProduct(productId);
+            if (product.getStockQuantity() < 1) {
+                return false;
+            }
+            product.setStockQuantity(product.getStockQuantity() - 1);
+            inventoryHandler.updateProductDetails(product);
+            return true;
+        }));
+    }
+
+    private Run hammer(int productId, IntPredicate reserve) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        if (reserve.test(productId)) {
+                            reserved.incrementAndGet();
+                        }
+                    } catch (RuntimeException ex) {
+                        errors.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return new Run(reserved.get(), errors.get(), elapsedNanos);
+    }
+
+    private record Run(int reserved, int errors, long elapsedNanos) {
+
+        double opsPerSecond() {
+            return THREADS * ATTEMPTS_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
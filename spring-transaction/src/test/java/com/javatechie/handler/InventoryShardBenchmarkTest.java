@@ -0,0 +1,97 @@
+package com.javatechie.handler;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Order;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.service.OrderProcessingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 64 threads ordering the same product, stock on the Product row versus split over shards :
+ * {@code mvn test -Dbenchmark=true -Dtest=InventoryShardBenchmarkTest}
+ * <p>
+ * H2 row locks are not InnoDB's, run it against MySQL for numbers that matter.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class InventoryShardBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int ORDERS_PER_THREAD = 100;
+    private static final int[] SHARDS = {1, 4, 16};
+
+    private static final AtomicInteger ORDER_IDS = new AtomicInteger(2_000_000);
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private InventoryShardHandler shardHandler;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Test
+    void compareShardedAndUnsharded() throws Exception {
+        // warm up every layout once
+        for (int shards : SHARDS) {
+            run(shards);
+        }
+        for (int shards : SHARDS) {
+            Run run = run(shards);
+            System.out.printf("%2d shard(s) : %6.0f orders/sec, %d failed%n",
+                    shards, run.ordersPerSecond(), run.failures);
+        }
+    }
+
+    private Run run(int shards) throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, THREADS * ORDERS_PER_THREAD);
+        shardHandler.shard(productId, shards);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        orderProcessingService.placeAnOrder(new Order(ORDER_IDS.incrementAndGet(), productId, 1, 0));
+                    } catch (RuntimeException ex) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return new Run(failures.get(), elapsedNanos);
+    }
+
+    private record Run(int failures, long elapsedNanos) {
+
+        double ordersPerSecond() {
+            return THREADS * ORDERS_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
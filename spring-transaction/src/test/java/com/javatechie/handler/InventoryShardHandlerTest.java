@@ -0,0 +1,189 @@
+package com.javatechie.handler;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.InventoryShardRepository;
+import com.javatechie.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class InventoryShardHandlerTest {
+
+    @Autowired
+    private InventoryShardHandler shardHandler;
+
+    @Autowired
+    private InventoryHandler inventoryHandler;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InventoryShardRepository shardRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shardedStockIsNeverOversold() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 100);
+        shardHandler.shard(productId, 4);
+        assertEquals(0, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+        assertEquals(100, productService.checkStock(productId));
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger lockFailures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10; i++) {
+                    try {
+                        if (inventoryHandler.reserveStock(productId, 1)) {
+                            reserved.incrementAndGet();
+                        }
+                    } catch (ConcurrencyFailureException ex) {
+                        // deadlock victim of the sell-out path, nothing was taken
+                        lockFailures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // the drained shards were refilled from the others, every failed order left its stock behind
+        int left = productService.checkStock(productId);
+        assertEquals(100, reserved.get() + left);
+        assertTrue(left <= lockFailures.get());
+    }
+
+    @Test
+    void orderLargerThanAnyShardIsTakenFromTheirTotal() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        shardHandler.shard(productId, 4);
+
+        assertTrue(inventoryHandler.reserveStock(productId, 7));
+        assertFalse(inventoryHandler.reserveStock(productId, 4));
+
+        assertEquals(3, productService.checkStock(productId));
+    }
+
+    @Test
+    void unshardMovesTheStockBackToTheProductRow() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        shardHandler.shard(productId, 3);
+        inventoryHandler.reserveStock(productId, 2);
+
+        shardHandler.shard(productId, 1);
+
+        assertFalse(shardHandler.isSharded(productId));
+        assertEquals(8, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void productShardedByAnotherInstanceIsSeenByOrders() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        InventoryShardHandler otherInstance = new InventoryShardHandler(shardRepository, inventoryRepository, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), Thread::new, ShardSelection.RANDOM, false);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> otherInstance.shard(productId, 4));
+
+        assertEquals(4, inventoryRepository.findById(productId).orElseThrow().getShardCount());
+        // this instance has not seen it sharded : the empty Product row sends the order to the shards
+        assertFalse(shardHandler.seenSharded(productId));
+        assertTrue(inventoryHandler.reserveStock(productId, 3));
+        assertTrue(shardHandler.seenSharded(productId));
+        assertTrue(inventoryHandler.decrementStock(Map.of(productId, 2)).isEmpty());
+        // taken from the shards, the Product row holds none of the stock
+        assertEquals(0, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+        assertEquals(5, productService.checkStock(productId));
+    }
+
+    @Test
+    void productUnshardedByAnotherInstanceIsSeenByOrders() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        shardHandler.shard(productId, 4);
+        InventoryShardHandler otherInstance = new InventoryShardHandler(shardRepository, inventoryRepository, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), Thread::new, ShardSelection.RANDOM, false);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> otherInstance.unshard(productId));
+
+        assertTrue(inventoryHandler.reserveStock(productId, 3));
+        assertFalse(shardHandler.seenSharded(productId));
+        assertTrue(inventoryHandler.decrementStock(Map.of(productId, 2)).isEmpty());
+        assertEquals(5, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void soldOutProductIsRejectedOnBothPaths() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 1);
+
+        assertFalse(inventoryHandler.reserveStock(productId, 2));
+        assertEquals(Set.of(productId), inventoryHandler.decrementStock(Map.of(productId, 2)));
+        assertFalse(shardHandler.seenSharded(productId));
+        assertEquals(1, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void shardRowsBeyondTheCountReadAreStillUsed() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 8);
+        shardHandler.shard(productId, 4);
+        // shards 0 and 1 dry, shard 3 above the count the order read
+        jdbcTemplate.update("UPDATE InventoryShard SET stockQuantity = CASE shardNo WHEN 3 THEN 8 ELSE 0 END WHERE productId = ?", productId);
+
+        assertTrue(shardHandler.reserveStock(productId, 2, 5));
+
+        assertEquals(3, shardHandler.totalStock(productId));
+    }
+
+    @Test
+    void savingProductDetailsKeepsTheShardCount() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        shardHandler.shard(productId, 4);
+        Product product = inventoryRepository.findById(productId).orElseThrow();
+        product.setShardCount(0);
+        product.setName("Gaming Laptop");
+
+        inventoryHandler.updateProductDetails(product);
+
+        assertEquals(4, inventoryRepository.findById(productId).orElseThrow().getShardCount());
+        assertEquals(10, productService.checkStock(productId));
+    }
+}
@@ -0,0 +1,93 @@
+package com.javatechie.handler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.javatechie.entity.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NotificationOutboxTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void pendingNotificationsSurviveRestart() {
+        Path file = dir.resolve("outbox.log");
+        NotificationOutbox outbox = new NotificationOutbox(file, 1000, objectMapper);
+        outbox.append(new Order(1, 7, 2, 200.0));
+        outbox.append(new Order(2, 7, 1, 100.0));
+        outbox.markDone(1);
+        outbox.close();
+
+        NotificationOutbox restarted = new NotificationOutbox(file, 1000, objectMapper);
+
+        assertEquals(1, restarted.pendingCount());
+        assertEquals(new Order(2, 7, 1, 100.0), restarted.pending().get(0));
+        restarted.close();
+    }
+
+    @Test
+    void appendsShareOneForce() throws Exception {
+        Path file = dir.resolve("outbox.log");
+        NotificationOutbox outbox = new NotificationOutbox(file, 1000, objectMapper);
+        ExecutorService committers = Executors.newFixedThreadPool(8);
+        List<Future<?>> appends = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            Order order = new Order(id, 7, 1, 100.0);
+            appends.add(committers.submit(() -> outbox.append(order)));
+        }
+        for (Future<?> append : appends) {
+            append.get();
+        }
+        committers.shutdown();
+        assertEquals(0, outbox.forces());
+
+        outbox.sync();
+        outbox.sync();
+
+        assertEquals(1, outbox.forces());
+        assertEquals(100, Files.readAllLines(file).size());
+        outbox.close();
+    }
+
+    @Test
+    void compactionKeepsOnlyPendingRecords() throws Exception {
+        Path file = dir.resolve("outbox.log");
+        NotificationOutbox outbox = new NotificationOutbox(file, 3, objectMapper);
+        for (int id = 1; id <= 4; id++) {
+            outbox.append(new Order(id, 7, 1, 100.0));
+        }
+        for (int id = 1; id <= 3; id++) {
+            outbox.markDone(id);
+        }
+        // appends after the compaction go to the new file
+        outbox.append(new Order(5, 7, 1, 100.0));
+        outbox.close();
+
+        assertEquals(2, Files.readAllLines(file).size());
+        assertEquals(2, new NotificationOutbox(file, 3, objectMapper).pendingCount());
+    }
+
+    @Test
+    void tornLastLineIsSkipped() throws Exception {
+        Path file = dir.resolve("outbox.log");
+        NotificationOutbox outbox = new NotificationOutbox(file, 1000, objectMapper);
+        outbox.append(new Order(1, 7, 1, 100.0));
+        outbox.close();
+        Files.writeString(file, Files.readString(file) + "{\"state\":\"PEN", java.nio.file.StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertEquals(1, new NotificationOutbox(file, 1000, objectMapper).pendingCount());
+    }
+}
@@ -0,0 +1,131 @@
+package com.javatechie.handler;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.config.TransactionMetrics;
+import com.javatechie.dto.TransactionStats;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductDetailsCacheTest {
+
+    @Autowired
+    private InventoryHandler inventoryHandler;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TransactionMetrics transactionMetrics;
+
+    @Test
+    void firstReadMissesAndLaterReadsHit() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        double misses = gets("miss");
+        double hits = gets("hit");
+
+        assertEquals(100.0, inventoryHandler.getProductDetails(productId).price());
+        // changed behind the cache's back, the cached price is still served
+        jdbcTemplate.update("UPDATE Product SET price = 120.0 WHERE id = ?", productId);
+        assertEquals(100.0, inventoryHandler.getProductDetails(productId).price());
+
+        assertEquals(misses + 1, gets("miss"));
+        assertEquals(hits + 1, gets("hit"));
+    }
+
+    @Test
+    void updateProductDetailsEvicts() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        assertEquals(100.0, inventoryHandler.getProductDetails(productId).price());
+
+        Product product = inventoryRepository.findById(productId).orElseThrow();
+        product.setPrice(150.0);
+        inventoryHandler.updateProductDetails(product);
+
+        assertEquals(150.0, inventoryHandler.getProductDetails(productId).price());
+    }
+
+    @Test
+    void readDuringTheUpdateTransactionIsEvictedOnCommit() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product = inventoryRepository.findById(productId).orElseThrow();
+            product.setPrice(200.0);
+            inventoryHandler.updateProductDetails(product);
+            // another request caches the committed, old price before this transaction commits
+            assertEquals(100.0, CompletableFuture.supplyAsync(() -> inventoryHandler.getProductDetails(productId).price()).join());
+        });
+
+        assertEquals(200.0, inventoryHandler.getProductDetails(productId).price());
+    }
+
+    @Test
+    void uncommittedPriceCachedInsideTheTransactionIsEvictedOnRollback() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product = inventoryRepository.findById(productId).orElseThrow();
+            product.setPrice(300.0);
+            inventoryHandler.updateProductDetails(product);
+            // read in the transaction, the cache now holds a price that will never commit
+            assertEquals(300.0, inventoryHandler.getProductDetails(productId).price());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(100.0, inventoryHandler.getProductDetails(productId).price());
+    }
+
+    @Test
+    void cacheMissLoadsInItsOwnReadOnlyTransaction() {
+        long before = loads();
+
+        inventoryHandler.getProductDetails(ProductFixtures.newProduct(inventoryRepository, 10));
+
+        // not the repository's default transaction : the loader's, read-only so it may run on the replica
+        assertEquals(before + 1, loads());
+    }
+
+    @Test
+    void cacheMetricsAreRegistered() {
+        inventoryHandler.getProductDetails(ProductFixtures.newProduct(inventoryRepository, 10));
+
+        assertNotNull(meterRegistry.find("cache.gets").tags("cache", "productDetails", "result", "hit").functionCounter());
+        assertNotNull(meterRegistry.find("cache.gets").tags("cache", "productDetails", "result", "miss").functionCounter());
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "productDetails").functionCounter());
+        assertNotNull(meterRegistry.find("cache.size").tag("cache", "productDetails").gauge());
+    }
+
+    private long loads() {
+        return transactionMetrics.snapshot().stream()
+                .filter(s -> s.method().equals("InventoryHandler.getProductDetails"))
+                .mapToLong(TransactionStats::physical)
+                .sum();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "productDetails", "result", result).functionCounter().count();
+    }
+}
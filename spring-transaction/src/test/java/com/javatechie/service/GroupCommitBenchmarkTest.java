@@ -0,0 +1,120 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.InventoryHandler;
+import com.javatechie.handler.PaymentValidatorHandler;
+import com.javatechie.repository.InventoryRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Orders/sec under a burst of concurrent single orders, one commit per order versus group commit :
+ * {@code mvn test -Dbenchmark=true -Dtest=GroupCommitBenchmarkTest}
+ * <p>
+ * Both runs validate payment before the order transaction, as the front door does in group commit mode.
+ * In-memory H2 never fsyncs, so it only shows the saved transaction overhead; run it against MySQL
+ * with {@code innodb_flush_log_at_trx_commit=1} for the number that matters.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GroupCommitBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int ORDERS_PER_THREAD = 200;
+    private static final int PRODUCTS = 32;
+
+    private static final AtomicInteger ORDER_IDS = new AtomicInteger(700_000);
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private GroupCommitOrderWriter groupCommitOrderWriter;
+
+    @Autowired
+    private PaymentValidatorHandler paymentValidatorHandler;
+
+    @Autowired
+    private InventoryHandler inventoryHandler;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void compareCommitPerOrderWithGroupCommit() throws Exception {
+        // warm up both paths once
+        run(orderProcessingService::placeAnOrder);
+        run(groupCommitOrderWriter::place);
+
+        Run perOrder = run(orderProcessingService::placeAnOrder);
+        Run groupCommit = run(groupCommitOrderWriter::place);
+
+        DistributionSummary batchSizes = meterRegistry.get("orders.group-commit.batch.size").summary();
+        System.out.printf("commit per order : %6.0f orders/sec, %d failed%n", perOrder.ordersPerSecond(), perOrder.failures);
+        System.out.printf("group commit     : %6.0f orders/sec, %d failed, %.1f orders per commit%n",
+                groupCommit.ordersPerSecond(), groupCommit.failures, batchSizes.mean());
+    }
+
+    private Run run(Consumer<Order> placeOrder) throws Exception {
+        List<Integer> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(ProductFixtures.newProduct(inventoryRepository, THREADS * ORDERS_PER_THREAD));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    int productId = productIds.get((thread + i) % PRODUCTS);
+                    Order order = new Order(ORDER_IDS.incrementAndGet(), productId, 1, 0);
+                    try {
+                        order.setTotalPrice(inventoryHandler.getProductDetails(productId).price());
+                        paymentValidatorHandler.validatePaymentBeforeTransaction(order);
+                        placeOrder.accept(order);
+                    } catch (RuntimeException ex) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return new Run(failures.get(), elapsedNanos);
+    }
+
+    private record Run(int failures, long elapsedNanos) {
+
+        double ordersPerSecond() {
+            return THREADS * ORDERS_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
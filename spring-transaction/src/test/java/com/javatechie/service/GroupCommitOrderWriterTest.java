@@ -0,0 +1,154 @@
+package com.javatechie.service;
+
+import com.javatechie.entity.Order;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@SpringBootTest(properties = {"orders.group-commit.enabled=true", "orders.group-commit.max-wait-ms=50"})
+@ActiveProfiles("test")
+class GroupCommitOrderWriterTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentOrdersAreCommittedTogether() throws Exception {
+        int productId = inventoryRepository.save(new Product(0, "Mouse", 10.0, 100)).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int orderId = 9100 + t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return orderPlacementService.placeOrder(new Order(orderId, productId, 2, 0));
+            }));
+        }
+        start.countDown();
+        for (Future<Order> future : futures) {
+            assertEquals(20.0, future.get().getTotalPrice());
+        }
+        executor.shutdown();
+
+        assertEquals(100 - THREADS * 2, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+        assertTrue(orderRepository.existsById(9100 + THREADS - 1));
+        assertTrue(meterRegistry.get("orders.group-commit.batch.size").summary().max() > 1);
+    }
+
+    @Test
+    void failedOrderDoesNotFailItsBatch() throws Exception {
+        int productId = inventoryRepository.save(new Product(0, "Mouse", 10.0, 3)).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        Future<Order> fits = executor.submit(() -> {
+            start.await();
+            return orderPlacementService.placeOrder(new Order(9200, productId, 3, 0));
+        });
+        Future<Order> tooLarge = executor.submit(() -> {
+            start.await();
+            return orderPlacementService.placeOrder(new Order(9201, productId, 4, 0));
+        });
+        start.countDown();
+
+        assertEquals(30.0, fits.get().getTotalPrice());
+        Exception ex = assertThrows(Exception.class, tooLarge::get);
+        assertEquals("Insufficient stock !", ex.getCause().getMessage());
+        executor.shutdown();
+
+        assertTrue(orderRepository.existsById(9200));
+        assertFalse(orderRepository.existsById(9201));
+        assertEquals(0, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void disabledWriterStartsNoThreads() throws InterruptedException {
+        AtomicInteger threads = new AtomicInteger();
+        GroupCommitOrderWriter writer = writer(runnable -> {
+            threads.incrementAndGet();
+            return new Thread(runnable);
+        }, false, 2, 30_000);
+
+        writer.start();
+        writer.shutdown();
+
+        assertEquals(0, threads.get());
+    }
+
+    @Test
+    void ordersStillQueuedFailOnShutdown() throws Exception {
+        OrderProcessingService orderProcessingService = mock(OrderProcessingService.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // no writer threads, so the order stays queued
+        GroupCommitOrderWriter writer = new GroupCommitOrderWriter(orderProcessingService, Thread::new, registry,
+                true, 0, 64, 5, 10, 20, 30_000);
+        writer.start();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Order> queued = executor.submit(() -> writer.place(new Order(9210, 1, 1, 0)));
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> registry.get("orders.group-commit.queue.size").gauge().value() == 1);
+        writer.shutdown();
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertEquals("Group commit writer stopped", ex.getCause().getMessage());
+        verifyNoInteractions(orderProcessingService);
+        executor.shutdown();
+    }
+
+    @Test
+    void callerStopsWaitingAfterTheResultTimeout() throws InterruptedException {
+        GroupCommitOrderWriter writer = writer(Thread::new, true, 0, 50);
+        writer.start();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> writer.place(new Order(9211, 1, 1, 0)));
+        assertEquals("Group commit of order 9211 did not complete within 50 ms", ex.getMessage());
+        writer.shutdown();
+    }
+
+    private static GroupCommitOrderWriter writer(ThreadFactory threadFactory, boolean enabled,
+                                                 int writers, long resultTimeoutMillis) {
+        return new GroupCommitOrderWriter(mock(OrderProcessingService.class), threadFactory, new SimpleMeterRegistry(),
+                enabled, writers, 64, 5, 10, 20, resultTimeoutMillis);
+    }
+}
@@ -0,0 +1,114 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.dto.OrderPlacedEvent;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.NotificationGateway;
+import com.javatechie.handler.NotificationOutbox;
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "notification.outbox.path=target/notification-dispatcher-test.log",
+        "notification.retry.initial-backoff-ms=10",
+        "notification.retry.max-backoff-ms=50"
+})
+class NotificationDispatcherTest {
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private StubNotificationGateway gateway;
+
+    @Autowired
+    private NotificationOutbox outbox;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void resetGateway() {
+        gateway.delivered.clear();
+        gateway.failuresLeft.set(0);
+    }
+
+    @Test
+    void confirmationIsSentAfterCommitWithRetries() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        // the gateway is down for the first attempts
+        gateway.failuresLeft.set(2);
+
+        orderProcessingService.placeOrders(List.of(new Order(9001, productId, 1, 0)));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> gateway.delivered.containsKey(9001));
+        assertEquals(1, gateway.delivered.get(9001).get());
+        assertTrue(outbox.pending().stream().noneMatch(order -> order.getId() == 9001));
+    }
+
+    @Test
+    void rolledBackOrderIsNeverNotified() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new OrderPlacedEvent(new Order(9002, 1, 1, 100.0)));
+            status.setRollbackOnly();
+        });
+
+        Thread.sleep(200);
+        assertFalse(gateway.delivered.containsKey(9002));
+        assertTrue(outbox.pending().stream().noneMatch(order -> order.getId() == 9002));
+    }
+
+    static class StubNotificationGateway implements NotificationGateway {
+
+        final Map<Integer, AtomicInteger> delivered = new ConcurrentHashMap<>();
+
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        @Override
+        public void sendOrderConfirmation(Order order) {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("gateway unavailable");
+            }
+            delivered.computeIfAbsent(order.getId(), id -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    @TestConfiguration
+    static class StubGatewayConfig {
+
+        @Bean
+        @Primary
+        StubNotificationGateway stubNotificationGateway() {
+            return new StubNotificationGateway();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Order;
+import com.javatechie.entity.OrderOutboxEvent;
+import com.javatechie.handler.OrderEventSink;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.OrderOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "outbox.relay.poll-interval-ms=50",
+        "outbox.relay.max-attempts=3",
+        "outbox.relay.retry-backoff=10ms",
+        "outbox.relay.max-backoff=50ms"
+})
+class OrderOutboxRelayTest {
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderOutboxRepository outboxRepository;
+
+    @Autowired
+    private StubOrderEventSink sink;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void resetSink() {
+        sink.published.clear();
+        sink.failuresLeft.set(0);
+        sink.poison.clear();
+    }
+
+    @Test
+    void eventsOfSingleAndBatchOrdersArePublishedOnce() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        // the sink is down for the first batches
+        sink.failuresLeft.set(2);
+
+        orderProcessingService.placeAnOrder(new Order(9301, productId, 1, 0));
+        orderProcessingService.placeOrders(List.of(new Order(9302, productId, 1, 0), new Order(9303, productId, 1, 0)));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.published.keySet().containsAll(List.of(9301, 9302, 9303)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> outboxRepository.findAll().stream()
+                .filter(event -> event.getOrderId() >= 9301 && event.getOrderId() <= 9303)
+                .allMatch(event -> event.getProcessedAt() != null));
+        List.of(9301, 9302, 9303).forEach(orderId -> assertEquals(1, sink.published.get(orderId).get()));
+    }
+
+    @Test
+    void poisonEventIsDeadLetteredWithoutBlockingOthers() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        sink.poison.add(9305);
+
+        orderProcessingService.placeOrders(List.of(new Order(9305, productId, 1, 0), new Order(9306, productId, 1, 0)));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sink.published.containsKey(9306));
+        await().atMost(Duration.ofSeconds(5)).until(() -> eventOf(9305).getDeadLetteredAt() != null);
+        OrderOutboxEvent poison = eventOf(9305);
+        assertEquals(3, poison.getAttempts());
+        assertNull(poison.getProcessedAt());
+        assertEquals("java.lang.IllegalStateException: poison event", poison.getLastError());
+        assertFalse(sink.published.containsKey(9305));
+        assertEquals(1, sink.published.get(9306).get());
+    }
+
+    @Test
+    void rolledBackOrderLeavesNoEvent() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderProcessingService.placeAnOrder(new Order(9304, productId, 1, 0));
+                throw new IllegalStateException("rollback");
+            });
+        } catch (IllegalStateException expected) {
+            // the order and its event roll back together
+        }
+
+        assertFalse(outboxRepository.findAll().stream().anyMatch(event -> event.getOrderId() == 9304));
+    }
+
+    private OrderOutboxEvent eventOf(int orderId) {
+        return outboxRepository.findAll().stream()
+                .filter(event -> event.getOrderId() == orderId)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    @TestConfiguration
+    static class StubSinkConfig {
+
+        @Bean
+        @Primary
+        StubOrderEventSink stubOrderEventSink() {
+            return new StubOrderEventSink();
+        }
+    }
+
+    static class StubOrderEventSink implements OrderEventSink {
+
+        final Map<Integer, AtomicInteger> published = new ConcurrentHashMap<>();
+
+        final AtomicInteger failuresLeft = new AtomicInteger();
+
+        // orders whose events the sink always rejects
+        final Set<Integer> poison = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void publish(List<OrderOutboxEvent> events) {
+            if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            if (events.stream().anyMatch(event -> poison.contains(event.getOrderId()))) {
+                throw new IllegalStateException("poison event");
+            }
+            events.forEach(event -> published.computeIfAbsent(event.getOrderId(), id -> new AtomicInteger()).incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.dto.OrderResult;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.IdempotencyHandler;
+import com.javatechie.handler.IdempotencyKeyInProgressException;
+import com.javatechie.handler.IdempotencyKeyReusedException;
+import com.javatechie.repository.AuditLogRepository;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderPlacementServiceTest {
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Test
+    void orderIsPlacedWithoutSavepoint() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        Order placed = orderPlacementService.placeOrder(new Order(8001, productId, 2, 0));
+
+        assertEquals(200.0, placed.getTotalPrice());
+        assertTrue(orderRepository.existsById(8001));
+        assertEquals(8, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void failedPaymentIsAuditedAndNeverReachesTheOrderTransaction() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        assertThrows(RuntimeException.class,
+                () -> orderPlacementService.placeOrder(new Order(8002, productId, 11, 0)));
+
+        assertFalse(orderRepository.existsById(8002));
+        assertEquals(10, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+        await().atMost(Duration.ofSeconds(5)).until(() -> auditLogRepository.findAll().stream()
+                .anyMatch(log -> log.getOrderId() == 8002 && log.getAction().equals("payment validation failed")));
+    }
+
+    @Test
+    void batchRejectsOnlyOrdersFailingPayment() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+
+        List<OrderResult> results = orderPlacementService.placeOrders(List.of(
+                new Order(8003, productId, 1, 0),
+                new Order(8004, productId, 11, 0),
+                new Order(8005, productId, 2, 0)));
+
+        assertEquals(List.of(8003, 8004, 8005), results.stream().map(OrderResult::getOrderId).toList());
+        assertEquals(List.of(OrderResult.SUCCESS, OrderResult.FAILED, OrderResult.SUCCESS),
+                results.stream().map(OrderResult::getStatus).toList());
+        assertEquals(7, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> auditLogRepository.findAll().stream()
+                .filter(log -> log.getOrderId() == 8003 || log.getOrderId() == 8005)
+                .filter(log -> log.getAction().equals("order placement succeeded"))
+                .count() == 2);
+        await().atMost(Duration.ofSeconds(5)).until(() -> auditLogRepository.findAll().stream()
+                .anyMatch(log -> log.getOrderId() == 8004 && log.getAction().equals("payment validation failed")));
+        // accepted payments leave no payment audit row
+        assertTrue(auditLogRepository.findAll().stream()
+                .noneMatch(log -> log.getOrderId() >= 8003 && log.getOrderId() <= 8005
+                        && log.getAction().equals("Payment Failed for Order")));
+    }
+
+    @Test
+    void retryWithSameKeyGetsOriginalOrderAndDecrementsStockOnce() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Order>> retries = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            retries.add(executor.submit(() -> orderPlacementService.placeOrder(new Order(8006, productId, 2, 0), "checkout-8006")));
+        }
+        for (Future<Order> retry : retries) {
+            assertEquals(8006, retry.get().getId());
+        }
+        executor.shutdown();
+
+        Order late = orderPlacementService.placeOrder(new Order(8006, productId, 2, 0), "checkout-8006");
+
+        assertEquals("checkout-8006", late.getIdempotencyKey());
+        assertEquals(8, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void sameIdUnderAnotherKeyIsRejectedBeforeInventory() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        orderPlacementService.placeOrder(new Order(8007, productId, 1, 0), "checkout-8007");
+
+        assertThrows(RuntimeException.class,
+                () -> orderPlacementService.placeOrder(new Order(8007, productId, 1, 0), "other-8007"));
+
+        assertEquals(9, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void orderPlacedInBatchIsFoundByDerivedKey() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        orderPlacementService.placeOrders(List.of(new Order(8008, productId, 1, 0)));
+
+        Order retried = orderPlacementService.placeOrder(new Order(8008, productId, 1, 0));
+
+        assertEquals("order-8008", retried.getIdempotencyKey());
+        assertEquals(9, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void reusedKeyWithAnotherPayloadIsRejected() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        orderPlacementService.placeOrder(new Order(8009, productId, 1, 0), "checkout-8009");
+
+        // answered from the cache
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> orderPlacementService.placeOrder(new Order(8009, productId, 3, 0), "checkout-8009"));
+
+        // answered from the database, as after a restart or an eviction
+        IdempotencyHandler restarted = new IdempotencyHandler(orderRepository, new SimpleMeterRegistry(), 100, Duration.ofHours(1),
+                Duration.ofSeconds(30));
+        assertThrows(IdempotencyKeyReusedException.class, () -> restarted.placeOnce(
+                new Order(8009, productId, 3, 0), "checkout-8009", () -> fail("must not place the order again")));
+        Order replayed = restarted.placeOnce(
+                new Order(8009, productId, 1, 0), "checkout-8009", () -> fail("must not place the order again"));
+
+        assertEquals(100.0, replayed.getTotalPrice());
+        assertEquals(9, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void orderStoredWithoutKeyIsNotAReplay() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        // stored before idempotency keys existed
+        orderRepository.save(new Order(8010, productId, 5, 500));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> orderPlacementService.placeOrder(new Order(8010, productId, 1, 0)));
+
+        assertEquals("Order already exists with id : 8010", ex.getMessage());
+        assertEquals(10, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void retryStopsWaitingForAHangingFirstRequest() throws Exception {
+        IdempotencyHandler handler = new IdempotencyHandler(orderRepository, new SimpleMeterRegistry(), 100, Duration.ofHours(1),
+                Duration.ofMillis(50));
+        CountDownLatch placing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Order placed = new Order(8011, 1, 1, 100);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Order> first = executor.submit(() -> handler.placeOnce(new Order(8011, 1, 1, 0), "checkout-8011", () -> {
+            placing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return placed;
+        }));
+        placing.await();
+
+        assertThrows(IdempotencyKeyInProgressException.class, () -> handler.placeOnce(
+                new Order(8011, 1, 1, 0), "checkout-8011", () -> fail("must not place the order again")));
+
+        release.countDown();
+        assertEquals(8011, first.get().getId());
+        executor.shutdown();
+    }
+}
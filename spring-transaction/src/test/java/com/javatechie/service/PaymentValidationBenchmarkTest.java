@@ -0,0 +1,138 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.InventoryHandler;
+import com.javatechie.handler.PaymentValidatorHandler;
+import com.javatechie.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Orders/sec with payment validated before the order transaction versus inside it behind a savepoint :
+ * {@code mvn test -Dbenchmark=true -Dtest=PaymentValidationBenchmarkTest}
+ * <p>
+ * JpaTransactionManager cannot open NESTED transactions, so the savepoint run sets and releases
+ * a JDBC savepoint on the order connection around the same check, which is what NESTED does on a
+ * transaction manager supporting it. H2 savepoints are cheap, run it against MySQL for numbers that matter.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PaymentValidationBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 500;
+    private static final int PRODUCTS = 32;
+
+    private static final AtomicInteger ORDER_IDS = new AtomicInteger(500_000);
+
+    @Autowired
+    private OrderPlacementService orderPlacementService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private PaymentValidatorHandler paymentValidatorHandler;
+
+    @Autowired
+    private InventoryHandler inventoryHandler;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void compareWithAndWithoutSavepoint() throws Exception {
+        // warm up both paths once
+        run(orderPlacementService::placeOrder);
+        run(this::placeWithSavepoint);
+
+        Run preTransaction = run(orderPlacementService::placeOrder);
+        Run savepoint = run(this::placeWithSavepoint);
+
+        System.out.printf("pre-transaction : %6.0f orders/sec, %d failed%n", preTransaction.ordersPerSecond(), preTransaction.failures);
+        System.out.printf("savepoint       : %6.0f orders/sec, %d failed%n", savepoint.ordersPerSecond(), savepoint.failures);
+    }
+
+    private void placeWithSavepoint(Order order) {
+        transactionTemplate.executeWithoutResult(status -> {
+            order.setTotalPrice(order.getQuantity() * inventoryHandler.getProductDetails(order.getProductId()).price());
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                Savepoint savepoint = connection.setSavepoint();
+                paymentValidatorHandler.validatePaymentBeforeTransaction(order);
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+            // joins the transaction above, validation is not repeated in PRE_TRANSACTION mode
+            orderProcessingService.placeAnOrder(order);
+        });
+    }
+
+    private Run run(Consumer<Order> placeOrder) throws Exception {
+        List<Integer> productIds = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            productIds.add(ProductFixtures.newProduct(inventoryRepository, THREADS * ORDERS_PER_THREAD));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    int productId = productIds.get((thread + i) % PRODUCTS);
+                    try {
+                        placeOrder.accept(new Order(ORDER_IDS.incrementAndGet(), productId, 1, 0));
+                    } catch (RuntimeException ex) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return new Run(failures.get(), elapsedNanos);
+    }
+
+    private record Run(int failures, long elapsedNanos) {
+
+        double ordersPerSecond() {
+            return THREADS * ORDERS_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+        }
+    }
+}
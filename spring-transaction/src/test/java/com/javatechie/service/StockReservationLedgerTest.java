@@ -0,0 +1,157 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Order;
+import com.javatechie.handler.AuditLogHandler;
+import com.javatechie.repository.AuditLogRepository;
+import com.javatechie.repository.InventoryRepository;
+import com.javatechie.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the scheduled flush only runs at startup here, the tests flush themselves
+@SpringBootTest(properties = {"inventory.ledger.enabled=true", "inventory.ledger.flush-interval-ms=3600000"})
+@ActiveProfiles("test")
+class StockReservationLedgerTest {
+
+    private static final int PRODUCTS = 8;
+    private static final int STOCK = 100;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 60;
+
+    private static final AtomicInteger ORDER_IDS = new AtomicInteger(70_000);
+
+    @Autowired
+    private StockReservationLedger ledger;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private AuditLogHandler auditLogHandler;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentReservationsOverManyStripesNeverOversell() throws Exception {
+        // consecutive ids, one stripe each
+        int[] productIds = new int[PRODUCTS];
+        for (int p = 0; p < PRODUCTS; p++) {
+            productIds[p] = ProductFixtures.newProduct(inventoryRepository, STOCK);
+        }
+
+        long rejections = ledger.getRejections();
+        AtomicIntegerArray reserved = new AtomicIntegerArray(PRODUCTS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int p = i % PRODUCTS;
+                    if (reserveInTransaction(productIds[p], 1)) {
+                        reserved.incrementAndGet(p);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (int p = 0; p < PRODUCTS; p++) {
+            assertEquals(STOCK, reserved.get(p));
+            // nothing written back yet
+            assertEquals(STOCK, ledger.unflushedQuantity(productIds[p]));
+            assertEquals(STOCK, ProductFixtures.stockOf(inventoryRepository, productIds[p]));
+        }
+        assertEquals((long) THREADS * ATTEMPTS_PER_THREAD - PRODUCTS * STOCK, ledger.getRejections() - rejections);
+    }
+
+    @Test
+    void flushWritesTheNetDeltaOnce() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        Order first = new Order(ORDER_IDS.incrementAndGet(), productId, 3, 0);
+        Order second = new Order(ORDER_IDS.incrementAndGet(), productId, 4, 0);
+        transactionTemplate.executeWithoutResult(status -> ledger.reserve(first));
+        transactionTemplate.executeWithoutResult(status -> ledger.reserve(second));
+
+        ledger.flush();
+        ledger.flush();
+
+        assertEquals(3, ProductFixtures.stockOf(inventoryRepository, productId));
+        assertEquals(0, ledger.unflushedQuantity(productId));
+        assertEquals(1, auditRows(first.getId(), StockReservationLedger.FLUSHED_ACTION));
+        assertEquals(1, auditRows(second.getId(), StockReservationLedger.FLUSHED_ACTION));
+        // the counter keeps serving what is left
+        assertFalse(reserveInTransaction(productId, 4));
+        assertTrue(reserveInTransaction(productId, 3));
+    }
+
+    @Test
+    void rolledBackReservationIsGivenBack() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 5);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(ledger.reserve(new Order(ORDER_IDS.incrementAndGet(), productId, 5, 0)));
+            status.setRollbackOnly();
+        });
+        ledger.flush();
+
+        assertEquals(0, ledger.unflushedQuantity(productId));
+        assertEquals(5, ProductFixtures.stockOf(inventoryRepository, productId));
+        assertTrue(reserveInTransaction(productId, 5));
+    }
+
+    @Test
+    void replayAppliesReservationsWhoseFlushNeverCommitted() {
+        int productId = ProductFixtures.newProduct(inventoryRepository, 10);
+        // a committed order and its reservation marker, the process died before the flush
+        Order order = orderRepository.save(new Order(ORDER_IDS.incrementAndGet(), productId, 4, 0));
+        auditLogHandler.saveAuditDetails(List.of(order), StockReservationLedger.RESERVED_ACTION);
+
+        ledger.replay();
+        ledger.replay();
+
+        assertEquals(6, ProductFixtures.stockOf(inventoryRepository, productId));
+        assertEquals(1, auditRows(order.getId(), StockReservationLedger.FLUSHED_ACTION));
+    }
+
+    private boolean reserveInTransaction(int productId, int quantity) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                ledger.reserve(new Order(ORDER_IDS.incrementAndGet(), productId, quantity, 0))));
+    }
+
+    private long auditRows(int orderId, String action) {
+        return auditLogRepository.findAll().stream()
+                .filter(log -> log.getOrderId() == orderId && action.equals(log.getAction()))
+                .count();
+    }
+}
@@ -0,0 +1,101 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * N threads updating the stock of a few hot products through each strategy :
+ * {@code mvn test -Dbenchmark=true -Dtest=StockUpdateContentionBenchmarkTest}
+ * <p>
+ * H2 locks differently from MySQL InnoDB (no gap locks, no deadlock detection delay),
+ * run it against MySQL for numbers that matter.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StockUpdateContentionBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int UPDATES_PER_THREAD = 200;
+    private static final int HOT_PRODUCTS = 4;
+
+    @Autowired
+    private StockUpdateService stockUpdateService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void compareStrategies() throws Exception {
+        // warm up every path once
+        for (StockUpdateStrategy strategy : StockUpdateStrategy.values()) {
+            run(strategy);
+        }
+        for (StockUpdateStrategy strategy : StockUpdateStrategy.values()) {
+            double retriesBefore = count("stock.update.retries", strategy);
+            double failuresBefore = count("stock.update.failures", strategy);
+            double commitsBefore = count("stock.update.commits", strategy);
+
+            long elapsedNanos = run(strategy);
+
+            double commits = count("stock.update.commits", strategy) - commitsBefore;
+            double retries = count("stock.update.retries", strategy) - retriesBefore;
+            double failures = count("stock.update.failures", strategy) - failuresBefore;
+            System.out.printf("%-12s : %6.0f commits/sec, %.3f retries/commit, %.0f failed after retries%n",
+                    strategy, commits / (elapsedNanos / 1_000_000_000.0),
+                    commits == 0 ? 0 : retries / commits, failures);
+        }
+    }
+
+    private long run(StockUpdateStrategy strategy) throws Exception {
+        int[] productIds = new int[HOT_PRODUCTS];
+        for (int p = 0; p < HOT_PRODUCTS; p++) {
+            productIds[p] = ProductFixtures.newProduct(inventoryRepository, 1_000_000);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int productId = productIds[t % HOT_PRODUCTS];
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    try {
+                        stockUpdateService.adjustStock(productId, -1, strategy);
+                    } catch (RuntimeException ex) {
+                        // counted by stock.update.failures
+                    }
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        return elapsedNanos;
+    }
+
+    private double count(String name, StockUpdateStrategy strategy) {
+        return meterRegistry.counter(name, "strategy", strategy.name()).count();
+    }
+}
@@ -0,0 +1,98 @@
+package com.javatechie.service;
+
+import com.javatechie.ProductFixtures;
+import com.javatechie.entity.Product;
+import com.javatechie.repository.InventoryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockUpdateServiceTest {
+
+    private static final int STOCK = 1000;
+    private static final int THREADS = 8;
+    private static final int UPDATES_PER_THREAD = 25;
+
+    @Autowired
+    private StockUpdateService stockUpdateService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void productServiceUpdatesWithTheConfiguredStrategy() throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, STOCK);
+        StockUpdateStrategy strategy = stockUpdateService.getDefaultStrategy();
+        double before = commits(strategy);
+
+        productService.updateStock(productId, 7, false);
+
+        assertEquals(StockUpdateStrategy.OPTIMISTIC, strategy);
+        assertEquals(before + 1, commits(strategy));
+        assertEquals(7, inventoryRepository.findById(productId).orElseThrow().getStockQuantity());
+    }
+
+    private double commits(StockUpdateStrategy strategy) {
+        return meterRegistry.counter("stock.update.commits", "strategy", strategy.name()).count();
+    }
+
+    @ParameterizedTest
+    @EnumSource(StockUpdateStrategy.class)
+    void concurrentUpdatesAreNeverLost(StockUpdateStrategy strategy) throws Exception {
+        int productId = ProductFixtures.newProduct(inventoryRepository, STOCK);
+
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    try {
+                        stockUpdateService.adjustStock(productId, -1, strategy);
+                        committed.incrementAndGet();
+                    } catch (RuntimeException ex) {
+                        // retries exhausted, the update did not happen
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Product product = inventoryRepository.findById(productId).orElseThrow();
+        assertEquals(THREADS * UPDATES_PER_THREAD, committed.get() + failed.get());
+        assertEquals(STOCK - committed.get(), product.getStockQuantity());
+        assertTrue(committed.get() > 0);
+    }
+}
@@ -0,0 +1,48 @@
+package com.javatechie.service.isolation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every isolation level on the embedded database, results in {@code target/isolation-benchmark.json} :
+ * {@code mvn test -Dbenchmark=true -Dtest=IsolationBenchmarkTest}
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class IsolationBenchmarkTest {
+
+    @Autowired
+    private IsolationBenchmark isolationBenchmark;
+
+    @Test
+    void compareIsolationLevels() throws Exception {
+        IsolationBenchmarkSettings settings = IsolationBenchmarkSettings.defaults();
+        // warm up the JIT and the pool, otherwise the first level looks slowest
+        IsolationBenchmarkSettings warmup = new IsolationBenchmarkSettings(settings.levels(), settings.readers(),
+                settings.writers(), 500, settings.rollbackRatio(), settings.insertRatio(),
+                settings.readGapMicros(), settings.writeHoldMicros());
+        isolationBenchmark.run(warmup);
+
+        List<IsolationBenchmarkResult> results = isolationBenchmark.run(settings);
+        isolationBenchmark.writeJson(results, Path.of("target", "isolation-benchmark.json"));
+
+        results.forEach(System.out::println);
+        assertEquals(settings.levels().size(), results.size());
+        // anomalies depend on timing, only the guarantees of the strictest level are asserted
+        IsolationBenchmarkResult serializable = results.get(results.size() - 1);
+        assertTrue(serializable.committed() > 0);
+        assertEquals(0, serializable.dirtyReads());
+        assertEquals(0, serializable.nonRepeatableReads());
+        assertEquals(0, serializable.phantomReads());
+    }
+}